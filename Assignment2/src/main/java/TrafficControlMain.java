@@ -6,8 +6,9 @@ import java.util.List;
 import java.util.Locale;
 
 public class TrafficControlMain {
-    private final static String VAULT_NAME = "/2023-09";
-    //private final static String VAULT_NAME = "/test1";
+    // the monthly vaults to be processed, each into its own partition; the cars are taken from the latest month
+    private final static String[] VAULT_NAMES = { "/2023-09" };
+    //private final static String[] VAULT_NAMES = { "/test1" };
 
     public static void main(String[] args) {
         Locale.setDefault(Locale.ENGLISH);
@@ -15,13 +16,15 @@ public class TrafficControlMain {
 
         TrafficTracker trafficTracker = new TrafficTracker();
 
-        // import all known cars from the data vault
-        trafficTracker.importCarsFromVault(VAULT_NAME + "/cars.txt");
+        // import all known cars from the latest data vault
+        trafficTracker.importCarsFromVault(VAULT_NAMES[VAULT_NAMES.length-1] + "/cars.txt");
         System.out.println("Imported cars:\n" +
                 trafficTracker.getCars().subList(0,Integer.min(10,trafficTracker.getCars().size())) + "...\n");
 
-        // import and process all detections at the city entry points of environmental zones from the data vault
-        trafficTracker.importDetectionsFromVault(VAULT_NAME + "/detections");
+        // import and process all detections at the city entry points of environmental zones from every monthly vault
+        for (String vaultName : VAULT_NAMES) {
+            trafficTracker.importDetectionsPartitionFromVault(vaultName.substring(1), vaultName + "/detections");
+        }
         System.out.println("Aggregated offending detections:\n" +
                 trafficTracker.getViolations().subList(0,Integer.min(10,trafficTracker.getViolations().size())) + "... \n");
 
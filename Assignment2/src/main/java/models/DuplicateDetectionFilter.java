@@ -0,0 +1,80 @@
+package models;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Suppresses repeated detections of the same car at the same city within a configurable time window.
+ * Gateways often report the same license plate several times within seconds,
+ * and such repeated reports shall not be counted as separate offences.
+ * Detections do not arrive in time order: every gate file covers a whole month,
+ * so all accepted detections are retained until the filter is cleared, e.g. for the import of every partition.
+ */
+public class DuplicateDetectionFilter {
+    private final Duration window;      // detections of the same car in the same city within this window are duplicates
+
+    // the accepted detection times per car and city, ordered by time for efficient window lookups
+    // (detection files are not time-ordered, so earlier and later accepted detections need to be searchable)
+    private final Map<String, NavigableSet<LocalDateTime>> acceptedDetections = new HashMap<>();
+
+    public DuplicateDetectionFilter(Duration window) {
+        this.window = window;
+    }
+
+    /**
+     * checks whether the detection repeats an earlier accepted detection of the same car in the same city
+     * within the time window. Non-duplicate detections are registered as accepted.
+     * @param detection
+     * @return  true if the detection shall be discarded as a duplicate,
+     *          false if the detection has been accepted
+     */
+    public boolean isDuplicate(Detection detection) {
+        if (!this.isEnabled()) return false;
+
+        NavigableSet<LocalDateTime> acceptedTimes = this.acceptedDetections.computeIfAbsent(
+                detection.getCar().getLicensePlate() + "/" + detection.getCity(), k -> new TreeSet<>());
+
+        // find the closest accepted detections before and after this detection
+        LocalDateTime dateTime = detection.getDateTime();
+        LocalDateTime before = acceptedTimes.floor(dateTime);
+        LocalDateTime after = acceptedTimes.ceiling(dateTime);
+
+        if ((before != null && Duration.between(before, dateTime).compareTo(this.window) <= 0) ||
+                (after != null && Duration.between(dateTime, after).compareTo(this.window) <= 0)) {
+            return true;
+        }
+
+        acceptedTimes.add(dateTime);
+        return false;
+    }
+
+    /**
+     * forgets all accepted detections
+     */
+    public void clear() {
+        this.acceptedDetections.clear();
+    }
+
+    /**
+     * @return  the number of accepted detections that are retained for duplicate checks
+     */
+    public int size() {
+        int size = 0;
+        for (NavigableSet<LocalDateTime> acceptedTimes : this.acceptedDetections.values()) {
+            size += acceptedTimes.size();
+        }
+        return size;
+    }
+
+    public boolean isEnabled() {
+        return this.window != null && !this.window.isNegative() && !this.window.isZero();
+    }
+
+    public Duration getWindow() {
+        return this.window;
+    }
+}
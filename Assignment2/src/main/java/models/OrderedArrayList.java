@@ -2,7 +2,9 @@ package models;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 
@@ -44,6 +46,28 @@ public class OrderedArrayList<E>
         this.nSorted = this.size();
     }
 
+    /**
+     * appends all items at the end of the list
+     * if the list was fully sorted, the sorted section is extended over the appended items
+     * as far as they follow in order, e.g. when a pre-sorted collection is appended to an empty list
+     * @param items
+     * @return  whether the list has changed
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> items) {
+        boolean fullySorted = this.nSorted == this.size();
+        boolean changed = super.addAll(items);
+        if (fullySorted && this.sortOrder != null) {
+            if (this.nSorted == 0 && this.size() > 0) {
+                this.nSorted = 1;
+            }
+            while (this.nSorted < this.size() && this.sortOrder.compare(this.get(this.nSorted - 1), this.get(this.nSorted)) <= 0) {
+                this.nSorted++;
+            }
+        }
+        return changed;
+    }
+
     // TODO override the ArrayList.add(index, item), ArrayList.remove(index) and Collection.remove(object) methods
     //  such that they both meet the ArrayList contract of these methods (see ArrayList JavaDoc)
     //  and sustain the representation invariant of OrderedArrayList
@@ -205,6 +229,52 @@ public class OrderedArrayList<E>
 
 
 
+    /**
+     * finds the first position in the sorted section of the arrayList that holds an item which is not smaller
+     * than the searchItem, by an iterative binary search using the this.sortOrder comparator.
+     * All items in the sorted section before that position are smaller than the searchItem.
+     * @param searchItem    the item to be searched on the basis of comparison by this.sortOrder
+     * @return              the position index of the lower bound, or nSorted if all sorted items are smaller.
+     */
+    public int indexOfLowerBound(E searchItem) {
+        int left = 0;
+        int right = nSorted;
+
+        while (left < right) {
+            int mid = left + (right - left) / 2;
+
+            if (this.sortOrder.compare(this.get(mid), searchItem) < 0) {
+                // midItem and all items before it are smaller than searchItem
+                left = mid + 1;
+            } else {
+                // midItem is not smaller, so the lower bound is at mid or before
+                right = mid;
+            }
+        }
+
+        return left;
+    }
+
+    /**
+     * provides a view on the contiguous range of items that are ordered between fromItem (inclusive)
+     * and toItem (exclusive) by the this.sortOrder comparator.
+     * The range boundaries are found by binary search, after any unsorted section has been sorted.
+     * The returned view is backed by this list and becomes invalid after structural modifications of this list.
+     * @param fromItem      the lower bound of the range, or null for a range without lower bound
+     * @param toItem        the upper bound of the range (excluded), or null for a range without upper bound
+     * @return              the view on all items fromItem <= item < toItem
+     */
+    @Override
+    public List<E> subListBetween(E fromItem, E toItem) {
+        // the range can only be contiguous if all items are in the sorted section
+        this.sort();
+
+        int fromIndex = fromItem != null ? this.indexOfLowerBound(fromItem) : 0;
+        int toIndex = toItem != null ? this.indexOfLowerBound(toItem) : this.nSorted;
+
+        return this.subList(fromIndex, Math.max(fromIndex, toIndex));
+    }
+
     /**
      * finds a match of newItem in the list and applies the merger operator with the newItem to that match
      * i.e. the found match is replaced by the outcome of the merge between the match and the newItem
@@ -9,6 +9,7 @@ public interface OrderedList<E> extends List<E> {
     Comparator<? super E> getSortOrder();
     void sort();
     int indexOfByBinarySearch(E searchItem);
+    List<E> subListBetween(E fromItem, E toItem);
     boolean merge(E item, BinaryOperator<E> merger);
     double aggregate(Function<E,Double> mapper);
 }
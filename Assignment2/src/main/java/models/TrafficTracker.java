@@ -1,28 +1,59 @@
 package models;
 
 import javax.swing.table.TableStringConverter;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 public class TrafficTracker {
     private final String TRAFFIC_FILE_EXTENSION = ".txt";
-    private final String TRAFFIC_FILE_PATTERN = ".+\\" + TRAFFIC_FILE_EXTENSION;
+    private static final String COMPRESSED_FILE_EXTENSION = ".gz";
+    private final String TRAFFIC_FILE_PATTERN = ".+\\" + TRAFFIC_FILE_EXTENSION + "(\\" + COMPRESSED_FILE_EXTENSION + ")?";
+    private static final int DECODE_BUFFER_SIZE = 64 * 1024;
+    private static final int LINES_PER_CHUNK = 4096;      // the number of lines that are converted and sorted by one task
 
     private OrderedList<Car> cars;                  // the reference list of all known Cars registered by the RDW
     private OrderedList<Violation> violations;      // the accumulation of all offences by car and by city
+                                                    // across all partitions, rolled up upon first use
+    private final Map<String, OrderedList<Violation>> violationPartitions = new TreeMap<>();
+                                                    // the accumulation of offences by car and by city per partition
+                                                    // (e.g. per monthly vault), identified by partition name
+    private OrderedList<Car> carsByDateOfAdmission;     // optional secondary index on cars, built upon first use
+    private OrderedList<Car> carsByEmissionCategory;    // optional secondary index on cars, built upon first use
+    private DuplicateDetectionFilter duplicateFilter = new DuplicateDetectionFilter(Duration.ZERO);
+                                                    // suppresses repeated detections of a car in a city, if enabled
 
     public TrafficTracker() {
         // TODO initialize cars with an empty ordered list which sorts items by licensePlate.
         //  initalize violations with an empty ordered list which sorts items by car and city.
         //  Use your generic implementation class OrderedArrayList
         this.cars = new OrderedArrayList<>(Car::compareTo);
-        this.violations = new OrderedArrayList<>(Violation::compareByLicensePlateAndCity);
+        this.violations = createViolationsList();
+    }
+
+    private static OrderedList<Violation> createViolationsList() {
+        return new OrderedArrayList<>(Violation::compareByLicensePlateAndCity);
     }
 
     /**
@@ -31,13 +62,15 @@ public class TrafficTracker {
      */
     public void importCarsFromVault(String resourceName) {
         this.cars.clear();
+        this.dropSecondaryIndexes();
 
-        // load all cars from the text file
-        int numberOfLines = importItemsFromFile(this.cars,
+        // load all cars from the text file, parsing and sorting chunks of lines in parallel
+        int numberOfLines = importSortedItemsFromFile(this.cars,
                 createFileFromURL(TrafficTracker.class.getResource(resourceName)),
-                Car::fromLine);
+                Car::fromLine, this.cars.getSortOrder());
 
-        // sort the cars for efficient later retrieval
+        // the merged cars have been appended in order, so they form the sorted section already
+        // and this sort only guards against a different sort order of the import
         this.cars.sort();
 
         System.out.printf("Imported %d cars from %d lines in %s.\n", this.cars.size(), numberOfLines, resourceName);
@@ -46,24 +79,58 @@ public class TrafficTracker {
     /**
      * imports and merges all raw detection data of all entry gates of all cities from the hierarchical file structure of the vault
      * accumulates any offences against purple rules into this.violations
+     * any violations of earlier imported partitions are discarded
      * @param resourceName
      */
     public void importDetectionsFromVault(String resourceName) {
-        this.violations.clear();
+        this.violationPartitions.clear();
+        this.importDetectionsPartitionFromVault(resourceName, resourceName);
+    }
+
+    /**
+     * imports and merges all raw detection data of all entry gates of all cities from the hierarchical file structure of the vault
+     * accumulates any offences against purple rules into a separate partition of violations, e.g. for a single month.
+     * Other partitions are retained, such that adding a month only requires the import of that month.
+     * An earlier partition with the same name is replaced.
+     * @param partitionName     the name that identifies the partition, e.g. "2023-09"
+     * @param resourceName
+     */
+    public void importDetectionsPartitionFromVault(String partitionName, String resourceName) {
+        this.duplicateFilter.clear();
+        OrderedList<Violation> partition = createViolationsList();
 
         int totalNumberOfOffences =
-            this.mergeDetectionsFromVaultRecursively(
+            this.mergeDetectionsFromVaultRecursively(partition,
                     createFileFromURL(TrafficTracker.class.getResource(resourceName)));
+        partition.sort();
+
+        this.violationPartitions.put(partitionName, partition);
+        // the rollup across all partitions needs to be redone
+        this.violations = null;
 
         System.out.printf("Found %d offences among detections imported from files in %s.\n",
                 totalNumberOfOffences, resourceName);
     }
 
+    /**
+     * removes a partition of violations
+     * @param partitionName
+     * @return  whether the partition was found and removed
+     */
+    public boolean removePartition(String partitionName) {
+        if (this.violationPartitions.remove(partitionName) == null) {
+            return false;
+        }
+        this.violations = null;
+        return true;
+    }
+
     /**
      * traverses the detections vault recursively and processes every data file that it finds
+     * @param partition     the violations to which offences shall be merged
      * @param file
      */
-    private int mergeDetectionsFromVaultRecursively(File file) {
+    private int mergeDetectionsFromVaultRecursively(OrderedList<Violation> partition, File file) {
         int totalNumberOfOffences = 0;
 
         if (file.isDirectory()) {
@@ -72,13 +139,13 @@ public class TrafficTracker {
             File[] filesInDirectory = Objects.requireNonNullElse(file.listFiles(), new File[0]);
 
             for(File subFile : filesInDirectory){
-                totalNumberOfOffences += this.mergeDetectionsFromVaultRecursively(subFile);
+                totalNumberOfOffences += this.mergeDetectionsFromVaultRecursively(partition, subFile);
             }
 
         } else if (file.getName().matches(TRAFFIC_FILE_PATTERN)) {
             // the file is a regular file that matches the target pattern for raw detection files
-            // process the content of this file and merge the offences found into this.violations
-            totalNumberOfOffences += this.mergeDetectionsFromFile(file);
+            // process the content of this file and merge the offences found into the partition
+            totalNumberOfOffences += this.mergeDetectionsFromFile(partition, file);
         }
 
         return totalNumberOfOffences;
@@ -86,12 +153,13 @@ public class TrafficTracker {
 
     /**
      * imports another batch detection data from the filePath text file
-     * and merges the offences into the earlier imported and accumulated violations
+     * and merges the offences into the earlier imported and accumulated violations of the partition
+     * @param partition     the violations to which offences shall be merged
      * @param file
      */
-    private int mergeDetectionsFromFile(File file) {
+    private int mergeDetectionsFromFile(OrderedList<Violation> partition, File file) {
         // Re-sort the accumulated violations for efficient searching and merging
-        this.violations.sort();
+        partition.sort();
 
         // Use a regular ArrayList to load the raw detection info from the file
         List<Detection> newDetections = new ArrayList<>();
@@ -100,15 +168,25 @@ public class TrafficTracker {
         importItemsFromFile(newDetections, file, s -> Detection.fromLine(s, cars));
         System.out.printf("Imported %d detections from %s.\n", newDetections.size(), file.getPath());
 
+        // Discard repeated detections of the same car in the same city before any further processing
+        if (this.duplicateFilter.isEnabled()) {
+            // process the detections in time order, such that the first detection of a burst is retained
+            newDetections.sort(Comparator.comparing(Detection::getDateTime));
+            int numberOfDetections = newDetections.size();
+            newDetections.removeIf(this.duplicateFilter::isDuplicate);
+            System.out.printf("Discarded %d duplicate detections within %s.\n",
+                    numberOfDetections - newDetections.size(), this.duplicateFilter.getWindow());
+        }
+
         int totalNumberOfOffences = 0; // Tracks the number of offences that emerge from the data in this file
 
         // Validate all detections against the purple criteria and
-        // merge any resulting offences into this.violations, accumulating offences per car and per city
+        // merge any resulting offences into the partition, accumulating offences per car and per city
         for (Detection newDetection : newDetections) {
             Violation violation = newDetection.validatePurple();
             if (violation != null) {
-                // Check if the violation already exists in this.violations
-                Optional<Violation> existingViolation = this.violations.stream()
+                // Check if the violation already exists in the partition
+                Optional<Violation> existingViolation = partition.stream()
                         .filter(v -> v.getCar().getLicensePlate().equals(violation.getCar().getLicensePlate()) && v.getCity().equals(violation.getCity()))
                         .findFirst();
 
@@ -116,9 +194,10 @@ public class TrafficTracker {
                     // If the violation already exists, update its offencesCount
                     existingViolation.get().setOffencesCount(existingViolation.get().getOffencesCount() + 1);
                 } else {
-                    // If the violation does not exist, add it to this.violations and to this.cars
-                    this.violations.add(violation);
+                    // If the violation does not exist, add it to the partition and to this.cars
+                    partition.add(violation);
                     this.cars.add(violation.getCar());
+                    this.dropSecondaryIndexes();
                 }
 
                 totalNumberOfOffences++;
@@ -129,35 +208,56 @@ public class TrafficTracker {
     }
 
     /**
-     * calculates the total revenue of fines from all violations,
+     * calculates the total revenue of fines from all violations across all partitions,
      * Trucks pay €25 per offence, Coaches €35 per offence
      * @return      the total amount of money recovered from all violations
      */
     public double calculateTotalFines() {
-        // Use the aggregate method to calculate the total fines
-        double totalFines = this.violations.aggregate(violation -> {
-            // Define the fine amounts per vehicle type
-            final double truckFineAmount = 25.0;
-            final double coachFineAmount = 35.0;
-
-            // Get the vehicle type from the violation
-            Car.CarType vehicleType = violation.getCar().getCarType();
-
-            // Calculate the fine amount based on the vehicle type
-            double fine = 0.0;
-            if (Car.CarType.Truck.equals(vehicleType)) {
-                fine = truckFineAmount;
-            } else if (Car.CarType.Coach.equals(vehicleType)) {
-                fine = coachFineAmount;
-            }
-
-            // Multiply the fine amount by the number of offenses for this violation
-            return fine * violation.getOffencesCount();
-        });
+        // Use the aggregate method to calculate the total fines of every partition
+        double totalFines = 0.0;
+        for (OrderedList<Violation> partition : this.violationPartitions.values()) {
+            totalFines += partition.aggregate(TrafficTracker::calculateFines);
+        }
 
         return totalFines;
     }
 
+    /**
+     * calculates the total revenue of fines from all violations in a single partition,
+     * @param partitionName
+     * @return      the total amount of money recovered from all violations in the partition
+     */
+    public double calculateTotalFines(String partitionName) {
+        OrderedList<Violation> partition = this.violationPartitions.get(partitionName);
+        return partition != null ? partition.aggregate(TrafficTracker::calculateFines) : 0.0;
+    }
+
+    /**
+     * calculates the fines of all offences of a single violation
+     * Trucks pay €25 per offence, Coaches €35 per offence
+     * @param violation
+     * @return
+     */
+    private static double calculateFines(Violation violation) {
+        // Define the fine amounts per vehicle type
+        final double truckFineAmount = 25.0;
+        final double coachFineAmount = 35.0;
+
+        // Get the vehicle type from the violation
+        Car.CarType vehicleType = violation.getCar().getCarType();
+
+        // Calculate the fine amount based on the vehicle type
+        double fine = 0.0;
+        if (Car.CarType.Truck.equals(vehicleType)) {
+            fine = truckFineAmount;
+        } else if (Car.CarType.Coach.equals(vehicleType)) {
+            fine = coachFineAmount;
+        }
+
+        // Multiply the fine amount by the number of offenses for this violation
+        return fine * violation.getOffencesCount();
+    }
+
     /**
      * Retrieves the top `Violation` objects based on their number of offenses and a specified grouping criterion.
      *
@@ -167,9 +267,10 @@ public class TrafficTracker {
      */
 
     private List<Violation> topViolations(Function<Violation, ?> groupByFunction, int topNumber) {
-        // Merges all violations from this.violations into a new OrderedArrayList which orders and
+        // Merges all violations from all partitions into a new OrderedArrayList which orders and
         // aggregates violations by Car/City
-        Map<Object, Violation> groupedViolations = violations.stream()
+        Map<Object, Violation> groupedViolations = this.violationPartitions.values().stream()
+                .flatMap(List::stream)
                 .collect(Collectors.toMap(
                         groupByFunction,
                         Function.identity(),
@@ -187,7 +288,7 @@ public class TrafficTracker {
 
     /**
      * Prepares a list of topNumber of violations that show the highest offencesCount
-     * when this.violations are aggregated by car across all cities.
+     * when this.violations are aggregated by car across all cities and all partitions.
      *
      * @param topNumber the requested top number of violations in the result list
      * @return a list of topNum items that provides the top aggregated violations
@@ -199,7 +300,7 @@ public class TrafficTracker {
 
     /**
      * Prepares a list of topNumber of violations that show the highest offencesCount
-     * when this.violations are aggregated by city across all cars.
+     * when this.violations are aggregated by city across all cars and all partitions.
      *
      * @param topNumber the requested top number of violations in the result list
      * @return a list of topNum items that provides the top aggregated violations
@@ -209,8 +310,81 @@ public class TrafficTracker {
     }
 
 
+    /**
+     * finds all cars with a license plate that starts with the given prefix
+     * by a binary searched range in the sorted cars list
+     * @param prefix    the leading characters of the license plates
+     * @return          a view on the cars list with all matching cars in order of license plate
+     */
+    public List<Car> findCarsByLicensePlatePrefix(String prefix) {
+        // all plates with the prefix sort between the prefix itself and the prefix followed by the highest character
+        return this.cars.subListBetween(new Car(prefix), new Car(prefix + Character.MAX_VALUE));
+    }
+
+    /**
+     * finds all cars that have been admitted by the RDW within a period of dates
+     * using a secondary index of the cars by date of admission
+     * @param fromDate  the first date of the period, or null for a period without start
+     * @param untilDate the date after the period (excluded), or null for a period without end
+     * @return          a view on the secondary index with all matching cars in order of date of admission
+     */
+    public List<Car> findCarsAdmittedBetween(LocalDate fromDate, LocalDate untilDate) {
+        if (this.carsByDateOfAdmission == null) {
+            this.carsByDateOfAdmission = this.createSecondaryIndex(
+                    Comparator.comparing(Car::getDateOfAdmission).thenComparing(Car::getLicensePlate));
+        }
+        return this.carsByDateOfAdmission.subListBetween(
+                fromDate != null ? createProbeCar(0, fromDate) : null,
+                untilDate != null ? createProbeCar(0, untilDate) : null);
+    }
+
+    /**
+     * finds all cars within a range of emission categories
+     * using a secondary index of the cars by emission category
+     * @param fromCategory  the lowest emission category of the range
+     * @param toCategory    the emission category above the range (excluded)
+     * @return              a view on the secondary index with all matching cars in order of emission category
+     */
+    public List<Car> findCarsByEmissionCategory(int fromCategory, int toCategory) {
+        if (this.carsByEmissionCategory == null) {
+            this.carsByEmissionCategory = this.createSecondaryIndex(
+                    Comparator.comparingInt(Car::getEmissionCategory).thenComparing(Car::getLicensePlate));
+        }
+        return this.carsByEmissionCategory.subListBetween(
+                createProbeCar(fromCategory, LocalDate.MIN), createProbeCar(toCategory, LocalDate.MIN));
+    }
+
+    /**
+     * creates a secondary index with all cars in the given sortOrder
+     * @param sortOrder     the sortOrder of the index, which shall break ties by license plate
+     * @return              a sorted list of all cars
+     */
+    private OrderedList<Car> createSecondaryIndex(Comparator<Car> sortOrder) {
+        OrderedList<Car> index = new OrderedArrayList<>(sortOrder);
+        index.addAll(this.cars);
+        index.sort();
+        return index;
+    }
+
+    /**
+     * creates a car that sorts before all other cars with the given emission category or date of admission
+     * to be used as a boundary of ranges in the secondary indexes
+     */
+    private static Car createProbeCar(int emissionCategory, LocalDate dateOfAdmission) {
+        return new Car("", emissionCategory, Car.CarType.Unknown, Car.FuelType.Unknown, dateOfAdmission);
+    }
+
+    /**
+     * drops the secondary indexes after a change of the cars, such that they will be rebuilt upon next use
+     */
+    private void dropSecondaryIndexes() {
+        this.carsByDateOfAdmission = null;
+        this.carsByEmissionCategory = null;
+    }
+
     /**
      * imports a collection of items from a text file which provides one line for each item
+     * gzip compressed text files (.gz) are decoded while being read
      * @param items         the list to which imported items shall be added
      * @param file          the source text file
      * @param converter     a function that can convert a text line into a new item instance
@@ -219,19 +393,25 @@ public class TrafficTracker {
     public static <E> int importItemsFromFile(List<E> items, File file, Function<String,E> converter) {
         int numberOfLines = 0;
 
-        Scanner scanner = createFileScanner(file);
+        try (Scanner scanner = createFileScanner(file)) {
+
+            // read all source lines from the scanner,
+            // convert each line to an item of type E
+            // and add each successfully converted item into the list
+            while (scanner.hasNext()) {
+                // input another line with author information
+                String line = scanner.nextLine();
+                numberOfLines++;
 
-        // read all source lines from the scanner,
-        // convert each line to an item of type E
-        // and add each successfully converted item into the list
-        while (scanner.hasNext()) {
-            // input another line with author information
-            String line = scanner.nextLine();
-            numberOfLines++;
+                E item = converter.apply(line);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
 
-            E item = converter.apply(line);
-            if(item != null) {
-                items.add(item);
+            // the scanner hides read errors as an end of input, e.g. of a corrupt compressed file
+            if (scanner.ioException() != null) {
+                throw new RuntimeException("IO exception on path: " + file.getPath() + ": " + scanner.ioException().getMessage());
             }
         }
 
@@ -240,17 +420,192 @@ public class TrafficTracker {
     }
 
     /**
-     * helper method to create a scanner on a file and handle the exception
+     * imports a collection of items from a text file which provides one line for each item
+     * and adds them to the list in the order of the given sortOrder.
+     * The file is read once, as a stream of lines, and every chunk of LINES_PER_CHUNK lines is converted and sorted
+     * by a parallel task while reading continues. Only the text of a few chunks is held in memory at a time.
+     * The sorted chunks are finally combined by pairwise merges, which run in parallel as well.
+     * @param items         the list to which imported items shall be added
+     * @param file          the source text file
+     * @param converter     a function that can convert a text line into a new item instance
+     *                      (shall be safe to invoke from multiple threads)
+     * @param sortOrder     the ordening of the items that shall be added
+     * @param <E>           the (generic) type of each item
+     * @return              the number of lines that have been read from the file
+     */
+    public static <E> int importSortedItemsFromFile(List<E> items, File file, Function<String,E> converter,
+                                                    Comparator<? super E> sortOrder) {
+        // bounds the number of chunks of which the text lines are awaiting conversion
+        int maxPendingChunks = 2 * Runtime.getRuntime().availableProcessors();
+        List<CompletableFuture<List<E>>> sortedChunks = new ArrayList<>();
+        int numberOfLines = 0;
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(createDecodedInputStream(file), StandardCharsets.UTF_8))) {
+            List<String> lines = new ArrayList<>(LINES_PER_CHUNK);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                numberOfLines++;
+                lines.add(line);
+                if (lines.size() == LINES_PER_CHUNK) {
+                    sortedChunks.add(convertAndSortChunk(lines, converter, sortOrder));
+                    lines = new ArrayList<>(LINES_PER_CHUNK);
+                    if (sortedChunks.size() >= maxPendingChunks) {
+                        // wait until the conversion keeps up with the reading
+                        joinChunk(sortedChunks.get(sortedChunks.size() - maxPendingChunks));
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                sortedChunks.add(convertAndSortChunk(lines, converter, sortOrder));
+            }
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("FileNotFound exception on path: " + file.getPath());
+        } catch (IOException e) {
+            throw new RuntimeException("IO exception on path: " + file.getPath() + ": " + e.getMessage());
+        }
+
+        List<List<E>> chunks = new ArrayList<>(sortedChunks.size());
+        for (CompletableFuture<List<E>> sortedChunk : sortedChunks) {
+            chunks.add(joinChunk(sortedChunk));
+        }
+        // an ordered parallel reduction merges neighbouring chunks pairwise, up to a single sorted list
+        chunks.parallelStream()
+                .reduce((chunk1, chunk2) -> mergeSortedChunks(chunk1, chunk2, sortOrder))
+                .ifPresent(items::addAll);
+
+        return numberOfLines;
+    }
+
+    /**
+     * converts the lines of a chunk into items and sorts them, by a task in the common pool
+     */
+    private static <E> CompletableFuture<List<E>> convertAndSortChunk(List<String> lines, Function<String,E> converter,
+                                                                      Comparator<? super E> sortOrder) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<E> chunk = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                E item = converter.apply(line);
+                if (item != null) {
+                    chunk.add(item);
+                }
+            }
+            chunk.sort(sortOrder);
+            return chunk;
+        });
+    }
+
+    /**
+     * waits for the conversion of a chunk, rethrowing any exception of the converter as is
+     */
+    private static <E> List<E> joinChunk(CompletableFuture<List<E>> sortedChunk) {
+        try {
+            return sortedChunk.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * merges two sorted lists into a new sorted list
+     * items of chunk1 precede equal items of chunk2, such that the merge is stable
+     * @param chunk1        a list of items, sorted by sortOrder
+     * @param chunk2        a list of items, sorted by sortOrder
+     * @param sortOrder     the comparator that defines the order of the chunks
+     * @param <E>           the (generic) type of each item
+     * @return              a new list with all items of both chunks
+     */
+    private static <E> List<E> mergeSortedChunks(List<E> chunk1, List<E> chunk2, Comparator<? super E> sortOrder) {
+        List<E> merged = new ArrayList<>(chunk1.size() + chunk2.size());
+        int i1 = 0, i2 = 0;
+        while (i1 < chunk1.size() && i2 < chunk2.size()) {
+            if (sortOrder.compare(chunk2.get(i2), chunk1.get(i1)) < 0) {
+                merged.add(chunk2.get(i2++));
+            } else {
+                merged.add(chunk1.get(i1++));
+            }
+        }
+        merged.addAll(chunk1.subList(i1, chunk1.size()));
+        merged.addAll(chunk2.subList(i2, chunk2.size()));
+        return merged;
+    }
+
+    /**
+     * helper method to create a scanner on a (compressed) file and handle the exception
      * @param file
      * @return
      */
     private static Scanner createFileScanner(File file) {
         try {
-            return new Scanner(file);
+            return new Scanner(createDecodedInputStream(file), StandardCharsets.UTF_8);
         } catch (FileNotFoundException e) {
             throw new RuntimeException("FileNotFound exception on path: " + file.getPath());
         }
     }
+
+    /**
+     * helper method to open a file for reading its text content.
+     * A gzip compressed file (.gz) is decoded by a separate decoder thread,
+     * such that decompression runs in a pipeline with the parsing of the decoded text by the caller.
+     * @param file
+     * @return  a stream of the (decoded) content of the file
+     * @throws FileNotFoundException
+     */
+    private static InputStream createDecodedInputStream(File file) throws FileNotFoundException {
+        InputStream fileStream = new FileInputStream(file);
+        if (!file.getName().endsWith(COMPRESSED_FILE_EXTENSION)) {
+            return fileStream;
+        }
+
+        PipedInputStream decodedStream = new PipedInputStream(DECODE_BUFFER_SIZE);
+        PipedOutputStream decoderOutput;
+        try {
+            decoderOutput = new PipedOutputStream(decodedStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // holds any decoding failure, to be reported to the reader once it reaches the end of the decoded content
+        AtomicReference<IOException> decoderFailure = new AtomicReference<>();
+
+        Thread decoder = new Thread(() -> {
+            try (InputStream compressedStream = new GZIPInputStream(fileStream, DECODE_BUFFER_SIZE)) {
+                compressedStream.transferTo(decoderOutput);
+            } catch (IOException e) {
+                decoderFailure.set(e);
+            } finally {
+                try {
+                    decoderOutput.close();
+                } catch (IOException e) {
+                    // the reader has gone already
+                }
+            }
+        }, "decoder-" + file.getName());
+        decoder.setDaemon(true);
+        decoder.start();
+
+        return new FilterInputStream(decodedStream) {
+            @Override
+            public int read() throws IOException {
+                return checkDecoderFailure(super.read());
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                return checkDecoderFailure(super.read(buffer, offset, length));
+            }
+
+            private int checkDecoderFailure(int result) throws IOException {
+                if (result < 0 && decoderFailure.get() != null) {
+                    throw decoderFailure.get();
+                }
+                return result;
+            }
+        };
+    }
     private static File createFileFromURL(URL url) {
         try {
             return new File(url.toURI().getPath());
@@ -259,11 +614,53 @@ public class TrafficTracker {
         }
     }
 
+    /**
+     * configures the time window within which repeated detections of the same car in the same city
+     * are discarded as duplicates. A zero window disables the suppression of duplicates.
+     * Applies to subsequent imports of detections.
+     * @param window
+     */
+    public void setDuplicateDetectionWindow(Duration window) {
+        this.duplicateFilter = new DuplicateDetectionFilter(window);
+    }
+
     public OrderedList<Car> getCars() {
         return this.cars;
     }
 
+    /**
+     * provides the violations by car and by city, rolled up across all partitions
+     * @return
+     */
     public OrderedList<Violation> getViolations() {
+        if (this.violations == null) {
+            // aggregate by car and city in a hash map first, because merging into the list one violation at a time
+            // scans its unsorted tail and would cost quadratic time across many partitions
+            Map<String, Violation> violationsByCarAndCity = new HashMap<>();
+            for (OrderedList<Violation> partition : this.violationPartitions.values()) {
+                for (Violation violation : partition) {
+                    // combineOffencesCounts yields a new instance, so the partitions are not affected
+                    violationsByCarAndCity.merge(violation.getCar().getLicensePlate() + "/" + violation.getCity(),
+                            violation, Violation::combineOffencesCounts);
+                }
+            }
+            this.violations = createViolationsList();
+            this.violations.addAll(violationsByCarAndCity.values());
+            this.violations.sort();
+        }
         return this.violations;
     }
+
+    /**
+     * provides the violations by car and by city of a single partition
+     * @param partitionName
+     * @return  the violations of the partition, or null if no such partition has been imported
+     */
+    public OrderedList<Violation> getViolations(String partitionName) {
+        return this.violationPartitions.get(partitionName);
+    }
+
+    public Set<String> getPartitionNames() {
+        return Collections.unmodifiableSet(this.violationPartitions.keySet());
+    }
 }
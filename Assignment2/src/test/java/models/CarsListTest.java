@@ -218,6 +218,22 @@ public class CarsListTest {
         testSearchForAll(cars, cars::indexOf);
     }
 
+    @Test
+    public void subListBetweenFindsContiguousRanges() {
+        cars.add(volvo2);
+        // the unsorted tail shall be included in the range as well
+        assertEquals(List.of(volvo1, volvo2), cars.subListBetween(volvo1, icova));
+        assertEquals(cars.size(), cars.nSorted);
+
+        assertEquals(List.of(volvo1, volvo2, icova), cars.subListBetween(new Car("1-TTT"), new Car("1-TTT" + Character.MAX_VALUE)));
+        assertEquals(List.of(scoda, kamaz), cars.subListBetween(null, daf1));
+        assertEquals(List.of(audi, mercedes), cars.subListBetween(audi, null));
+        assertEquals(List.of(), cars.subListBetween(new Car("2"), new Car("3")),
+                "a range without items should be empty");
+        assertEquals(List.of(), cars.subListBetween(mercedes, audi),
+                "a range with reversed boundaries should be empty");
+    }
+
     /**
      * checks whether a searcher can find all items in its list
      * this should work both for OrderedLists and regular Lists
@@ -0,0 +1,87 @@
+package models;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DuplicateDetectionFilterTest {
+
+    Car volvo1, daf1;
+    LocalDateTime noon;
+    DuplicateDetectionFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        volvo1 = new Car("1-TTT-01", 5, Car.CarType.Truck, Car.FuelType.Diesel, LocalDate.of(2009, 1, 31));
+        daf1 = new Car("1-CCC-01", 5, Car.CarType.Coach, Car.FuelType.Diesel, LocalDate.of(2009, 1, 31));
+        noon = LocalDateTime.of(2023, 9, 1, 12, 0, 0);
+        filter = new DuplicateDetectionFilter(Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void repeatedDetectionsWithinWindowAreDuplicates() {
+        assertFalse(filter.isDuplicate(new Detection(volvo1, "Amsterdam", noon)));
+        assertTrue(filter.isDuplicate(new Detection(volvo1, "Amsterdam", noon.plusSeconds(10))),
+                "a later detection within the window should be a duplicate");
+        assertTrue(filter.isDuplicate(new Detection(volvo1, "Amsterdam", noon.minusSeconds(30))),
+                "an earlier detection within the window should be a duplicate");
+        assertFalse(filter.isDuplicate(new Detection(volvo1, "Amsterdam", noon.plusSeconds(31))),
+                "a detection beyond the window should be accepted");
+    }
+
+    @Test
+    public void detectionsOfOtherCarsOrCitiesAreNoDuplicates() {
+        assertFalse(filter.isDuplicate(new Detection(volvo1, "Amsterdam", noon)));
+        assertFalse(filter.isDuplicate(new Detection(daf1, "Amsterdam", noon)));
+        assertFalse(filter.isDuplicate(new Detection(volvo1, "Rotterdam", noon)));
+
+        filter.clear();
+        assertFalse(filter.isDuplicate(new Detection(volvo1, "Amsterdam", noon)),
+                "a cleared filter should have forgotten all accepted detections");
+    }
+
+    @Test
+    public void outOfOrderDetectionsOfOtherGatesAreDuplicates() {
+        // two gate files of the same city, each sorted by time on its own and covering the whole month
+        List<Detection> gate0 = new ArrayList<>();
+        List<Detection> gate1 = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            Car car = new Car(String.format("%02d-AB-%02d", i / 100, i % 100), 5,
+                    Car.CarType.Car, Car.FuelType.Gasoline, LocalDate.of(2019, 1, 31));
+            LocalDateTime dateTime = noon.plusMinutes(37L * i);
+            gate0.add(new Detection(car, "Utrecht", dateTime));
+            gate1.add(new Detection(car, "Utrecht", dateTime.plusSeconds(5)));
+        }
+        gate0.add(new Detection(volvo1, "Utrecht", noon.plusDays(3)));
+        gate1.add(0, new Detection(volvo1, "Utrecht", noon.plusDays(3).minusSeconds(5)));
+
+        for (Detection detection : gate0) {
+            assertFalse(filter.isDuplicate(detection), "first detection of " + detection);
+        }
+        // the second gate starts again at the beginning of the month
+        for (Detection detection : gate1) {
+            assertTrue(filter.isDuplicate(detection), "repeated detection of " + detection);
+        }
+        assertEquals(gate0.size(), filter.size());
+
+        filter.clear();
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    public void zeroWindowDisablesTheFilter() {
+        filter = new DuplicateDetectionFilter(Duration.ZERO);
+        assertFalse(filter.isEnabled());
+        assertFalse(filter.isDuplicate(new Detection(volvo1, "Amsterdam", noon)));
+        assertFalse(filter.isDuplicate(new Detection(volvo1, "Amsterdam", noon)));
+    }
+}
@@ -2,11 +2,27 @@ package models;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TrafficTrackerTest {
     private final static String VAULT_NAME = "/test1";
@@ -56,4 +72,131 @@ public class TrafficTrackerTest {
         assertEquals(7, trafficTracker.getViolations().stream().mapToInt(Violation::getOffencesCount).sum(),
                 "Total number of offences across all Violation instances did not match.");
     }
+
+    @Test
+    public void findCarsByRangesOfLicensePlateDateAndCategory() {
+        assertEquals(List.of("232-FD-8", "233-IG-7"), trafficTracker.findCarsByLicensePlatePrefix("23").stream()
+                .map(Car::getLicensePlate).collect(Collectors.toList()));
+        assertEquals(0, trafficTracker.findCarsByLicensePlatePrefix("QJD").size());
+
+        assertEquals(List.of("57-VY-LF", "UFP-17-D"), trafficTracker.findCarsAdmittedBetween(null, LocalDate.of(2017, 1, 1)).stream()
+                .map(Car::getLicensePlate).collect(Collectors.toList()));
+        assertEquals(2, trafficTracker.findCarsAdmittedBetween(LocalDate.of(2022, 1, 1), null).size());
+
+        assertEquals(List.of("UFP-17-D", "232-FD-8"), trafficTracker.findCarsByEmissionCategory(7, 10).stream()
+                .map(Car::getLicensePlate).collect(Collectors.toList()));
+        assertEquals(4, trafficTracker.findCarsByEmissionCategory(5, 6).size());
+    }
+
+    @Test
+    public void partitionsAreRolledUpAcrossMonths() {
+        double singleMonthFines = trafficTracker.calculateTotalFines();
+        int singleMonthTopOffences = trafficTracker.topViolationsByCar(1).get(0).getOffencesCount();
+
+        // import the same vault as two more months; the partition of the earlier import is kept
+        trafficTracker.importDetectionsPartitionFromVault("2023-08", VAULT_NAME + "/detections");
+        trafficTracker.importDetectionsPartitionFromVault("2023-09", VAULT_NAME + "/detections");
+        assertEquals(3, trafficTracker.getPartitionNames().size());
+        assertEquals(2, trafficTracker.getViolations("2023-08").size());
+
+        assertEquals(2, trafficTracker.getViolations().size(),
+                "The rollup should combine violations of the same car and city across partitions");
+        CarsListTest.checkRepresentationInvariant(trafficTracker.getViolations());
+        assertEquals(21, trafficTracker.getViolations().stream().mapToInt(Violation::getOffencesCount).sum());
+        assertEquals(3 * singleMonthFines, trafficTracker.calculateTotalFines());
+        assertEquals(singleMonthFines, trafficTracker.calculateTotalFines("2023-08"));
+        assertEquals(3 * singleMonthTopOffences, trafficTracker.topViolationsByCar(1).get(0).getOffencesCount());
+        assertEquals(7, trafficTracker.getViolations("2023-09").stream().mapToInt(Violation::getOffencesCount).sum(),
+                "The rollup should not change the counts of the partitions");
+
+        // re-importing a month replaces its partition, and dropping a month leaves the others
+        trafficTracker.importDetectionsPartitionFromVault("2023-09", VAULT_NAME + "/detections");
+        assertEquals(3, trafficTracker.getPartitionNames().size());
+        assertTrue(trafficTracker.removePartition("2023-08"));
+        assertEquals(14, trafficTracker.getViolations().stream().mapToInt(Violation::getOffencesCount).sum());
+
+        // a full import of a vault discards all partitions
+        trafficTracker.importDetectionsFromVault(VAULT_NAME + "/detections");
+        assertEquals(1, trafficTracker.getPartitionNames().size());
+        assertEquals(singleMonthFines, trafficTracker.calculateTotalFines());
+    }
+
+    @Test
+    public void importVaultSuppressesDuplicateDetections() {
+        TrafficTracker tracker = new TrafficTracker();
+        tracker.importCarsFromVault(VAULT_NAME + "/cars.txt");
+        // with a window of a year, every repeated offence of a car in a city becomes a duplicate
+        tracker.setDuplicateDetectionWindow(Duration.ofDays(365));
+        tracker.importDetectionsFromVault(VAULT_NAME + "/detections");
+
+        assertEquals(2, tracker.getViolations().size(),
+                "Suppressing duplicates should not lose any violations of different cars in different cities");
+        assertEquals(2, tracker.getViolations().stream().mapToInt(Violation::getOffencesCount).sum(),
+                "Duplicate detections should not be counted as offences");
+    }
+
+    @Test
+    public void importSortedItemsMergesAllChunksInOrder(@TempDir Path tempDir) throws IOException {
+        // prepare a registry that is large enough to be split into multiple chunks
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            lines.add(String.format("%03d-XX-%d, 5, Truck, Diesel, 2015-01-01", i % 1000, i / 1000));
+        }
+        lines.add("corrupt line");
+        Collections.shuffle(lines, new Random(2023));
+        Path carsFile = tempDir.resolve("cars.txt");
+        Files.write(carsFile, lines);
+
+        OrderedArrayList<Car> cars = new OrderedArrayList<>(Car::compareTo);
+        int numberOfLines = TrafficTracker.importSortedItemsFromFile(cars, carsFile.toFile(), Car::fromLine, cars.getSortOrder());
+
+        // the list is checked exactly as imported, without any further sort
+        assertEquals(50001, numberOfLines);
+        assertEquals(50000, cars.size());
+        assertEquals(cars.size(), cars.nSorted, "the merged chunks should have been appended in order");
+        for (int i = 1; i < cars.size(); i++) {
+            assertTrue(cars.get(i - 1).compareTo(cars.get(i)) <= 0, "cars out of order at index " + i);
+        }
+        CarsListTest.checkRepresentationInvariant(cars);
+
+        List<Car> expectedCars = new ArrayList<>();
+        for (String line : lines) {
+            Car car = Car.fromLine(line);
+            if (car != null) {
+                expectedCars.add(car);
+            }
+        }
+        expectedCars.sort(Car::compareTo);
+        assertEquals(expectedCars, cars);
+    }
+
+    @Test
+    public void importItemsDecodesCompressedFiles(@TempDir Path tempDir) throws Exception {
+        File plainFile = new File(TrafficTracker.class.getResource(VAULT_NAME + "/cars.txt").toURI());
+        Path compressedFile = tempDir.resolve("cars.txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedFile))) {
+            Files.copy(plainFile.toPath(), out);
+        }
+
+        List<Car> plainCars = new ArrayList<>();
+        List<Car> decodedCars = new ArrayList<>();
+        int plainLines = TrafficTracker.importItemsFromFile(plainCars, plainFile, Car::fromLine);
+        int decodedLines = TrafficTracker.importItemsFromFile(decodedCars, compressedFile.toFile(), Car::fromLine);
+
+        assertEquals(plainLines, decodedLines);
+        assertEquals(plainCars, decodedCars);
+
+        OrderedArrayList<Car> sortedCars = new OrderedArrayList<>(Car::compareTo);
+        TrafficTracker.importSortedItemsFromFile(sortedCars, compressedFile.toFile(), Car::fromLine, sortedCars.getSortOrder());
+        assertEquals(plainCars.size(), sortedCars.size());
+    }
+
+    @Test
+    public void importItemsReportsCorruptCompressedFiles(@TempDir Path tempDir) throws IOException {
+        Path corruptFile = tempDir.resolve("cars.txt.gz");
+        Files.writeString(corruptFile, "this is not gzip content");
+
+        assertThrows(RuntimeException.class,
+                () -> TrafficTracker.importItemsFromFile(new ArrayList<Car>(), corruptFile.toFile(), Car::fromLine));
+    }
 }
@@ -0,0 +1,51 @@
+package spotifycharts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The shapes of input data for the sorter benchmarks
+ */
+public enum DataShape {
+    RANDOM,         // songs in order of registration, with random streams counts
+    SORTED,         // songs already sorted by decreasing streams count total
+    REVERSED,       // songs sorted by increasing streams count total
+    DUPLICATES,     // songs drawn from a pool of only DUPLICATES_POOL_SIZE distinct songs
+    ZIPF;           // unique songs with heavy-tailed, Zipf distributed streams counts
+
+    private static final int DUPLICATES_POOL_SIZE = 64;
+
+    /**
+     * Prepares reproducible test data of the given size and shape
+     * @param size  the number of songs in the list
+     * @param seed
+     * @return      a new list of songs
+     */
+    public List<Song> createSongs(int size, long seed) {
+        if (this == ZIPF) {
+            return new ArrayList<>(new ChartsCalculator(seed).registerZipfDistributedSongs(size));
+        }
+        List<Song> songs = new ArrayList<>(new ChartsCalculator(seed).registerStreamedSongs(size));
+        switch (this) {
+            case SORTED:
+                songs.sort(Song::compareByHighestStreamsCountTotal);
+                break;
+            case REVERSED:
+                songs.sort(Song::compareByHighestStreamsCountTotal);
+                Collections.reverse(songs);
+                break;
+            case DUPLICATES:
+                Random randomizer = new Random(seed);
+                List<Song> pool = new ArrayList<>(songs.subList(0, Integer.min(DUPLICATES_POOL_SIZE, size)));
+                for (int i = 0; i < size; i++) {
+                    songs.set(i, pool.get(randomizer.nextInt(pool.size())));
+                }
+                break;
+            default:
+                break;
+        }
+        return songs;
+    }
+}
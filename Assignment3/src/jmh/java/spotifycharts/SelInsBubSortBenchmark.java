@@ -0,0 +1,42 @@
+package spotifycharts;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the quadratic selInsBubSort across the input sizes and data shapes that it can handle
+ * in reasonable time; compare with SorterBenchmark for the larger sizes of the other algorithms.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SelInsBubSortBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    @Param({ "RANDOM", "SORTED", "REVERSED", "DUPLICATES" })
+    public DataShape shape;
+
+    private final Comparator<Song> rankingScheme = Song::compareByHighestStreamsCountTotal;
+    private List<Song> songs;
+    private SongSorter sorter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        songs = shape.createSongs(size, 1L);
+        sorter = new SongSorter();
+    }
+
+    @Benchmark
+    public List<Song> selInsBubSort() {
+        return sorter.selInsBubSort(new ArrayList<>(songs), rankingScheme);
+    }
+}
@@ -0,0 +1,97 @@
+package spotifycharts;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the O(n log n) sorting algorithms of the Sorter implementations
+ * across input sizes and data shapes.
+ * Every invocation sorts a fresh copy of the prepared songs;
+ * the copyOnly benchmark measures the cost of that copy, which is included in all other results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class SorterBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000", "5000000" })
+    public int size;
+
+    @Param({ "RANDOM", "SORTED", "REVERSED", "DUPLICATES", "ZIPF" })
+    public DataShape shape;
+
+    private final Comparator<Song> rankingScheme = Song::compareByHighestStreamsCountTotal;
+    private List<Song> songs;
+    private SongSorter parallelSorter;
+    private SongSorter sequentialSorter;
+    private AdaptiveMergeSorter<Song> mergeSorter;
+    private SongTable songTable;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        songs = shape.createSongs(size, 1L);
+        parallelSorter = new SongSorter(true);
+        sequentialSorter = new SongSorter(false);
+        mergeSorter = new AdaptiveMergeSorter<>();
+        songTable = SongTable.of(songs);
+    }
+
+    @Benchmark
+    public List<Song> copyOnly() {
+        return new ArrayList<>(songs);
+    }
+
+    @Benchmark
+    public List<Song> quickSort() {
+        return parallelSorter.quickSort(new ArrayList<>(songs), rankingScheme);
+    }
+
+    @Benchmark
+    public List<Song> sequentialQuickSort() {
+        return sequentialSorter.quickSort(new ArrayList<>(songs), rankingScheme);
+    }
+
+    @Benchmark
+    public List<Song> keysQuickSort() {
+        return parallelSorter.quickSort(new ArrayList<>(songs), Song::getHighestStreamsCountTotalKey);
+    }
+
+    @Benchmark
+    public List<Song> radixSort() {
+        return sequentialSorter.radixSortByHighestStreamsCountTotal(new ArrayList<>(songs));
+    }
+
+    @Benchmark
+    public List<Song> mergeSort() {
+        return mergeSorter.mergeSort(new ArrayList<>(songs), rankingScheme);
+    }
+
+    @Benchmark
+    public List<Song> topsHeapSortTop10() {
+        return parallelSorter.topsHeapSort(10, new ArrayList<>(songs), rankingScheme);
+    }
+
+    @Benchmark
+    public List<Song> topsHeapSortTop10Percent() {
+        return parallelSorter.topsHeapSort(size / 10, new ArrayList<>(songs), rankingScheme);
+    }
+
+    @Benchmark
+    public int[] songTableRanking() {
+        return songTable.rankByHighestStreamsCountTotal();
+    }
+
+    @Benchmark
+    public List<Song> collectionsSort() {
+        List<Song> sortedSongs = new ArrayList<>(songs);
+        sortedSongs.sort(rankingScheme);
+        return sortedSongs;
+    }
+}
@@ -0,0 +1,179 @@
+package spotifycharts;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A sorter that provides a stable, run-adaptive merge sort.
+ * Existing ascending and descending runs in the items are detected and merged,
+ * such that re-sorting an almost sorted list (e.g. last week's chart) takes close to linear time.
+ * Items that compare equal keep their previous relative order.
+ */
+public class AdaptiveMergeSorter<E> extends SorterImpl<E> implements Sorter<E> {
+
+    // runs shorter than this size are extended by binary insertion sort before merging
+    private static final int MIN_RUN = 32;
+
+    public AdaptiveMergeSorter() {
+        super();
+    }
+
+    public AdaptiveMergeSorter(boolean parallel) {
+        super(parallel);
+    }
+
+    /**
+     * Sorts all items by a stable natural merge sort using the provided comparator
+     * for deciding relative ordening of two items.
+     * The runs are merged pairwise level by level; in parallel mode the merges of a level run on multiple cores.
+     * An IntKeyComparator is recognised, and its sort keys are then sorted as primitives instead.
+     * Items are sorted in a working array, which is written back into the list
+     * @param items
+     * @param comparator
+     * @return  the items sorted in place
+     */
+    @Override
+    public List<E> mergeSort(List<E> items, Comparator<E> comparator) {
+        if (items == null || items.size() <= 1) {
+            return items;
+        }
+        if (comparator instanceof IntKeyComparator<E> intKeyComparator) {
+            E[] array = toArray(items);
+            sortByIntKeys(array, intKeyComparator);
+            return writeBack(items, array);
+        }
+        E[] source = toArray(items);
+        E[] target = Arrays.copyOf(source, source.length);
+        int[] runStarts = findRuns(source, comparator);
+
+        // loop-invariant: source[runStarts[r]..runStarts[r+1]-1] is sorted for every run r
+        while (runStarts.length > 2) {
+            int numberOfRuns = runStarts.length - 1;
+            int numberOfPairs = (numberOfRuns + 1) / 2;
+            E[] from = source;
+            E[] to = target;
+            int[] runs = runStarts;
+
+            IntStream pairs = IntStream.range(0, numberOfPairs);
+            if (this.parallel && source.length >= PARALLEL_THRESHOLD) {
+                pairs = pairs.parallel();
+            }
+            pairs.forEach(p -> {
+                int low = runs[2 * p];
+                int middle = runs[2 * p + 1];
+                if (2 * p + 2 < runs.length) {
+                    merge(from, to, low, middle, runs[2 * p + 2], comparator);
+                } else {
+                    // an odd run out is carried over to the next level
+                    System.arraycopy(from, low, to, low, middle - low);
+                }
+            });
+
+            // every pair of runs has become a single run in the target
+            int[] mergedRunStarts = new int[numberOfPairs + 1];
+            for (int p = 0; p < numberOfPairs; p++) {
+                mergedRunStarts[p] = runStarts[2 * p];
+            }
+            mergedRunStarts[numberOfPairs] = source.length;
+            runStarts = mergedRunStarts;
+            target = source;
+            source = to;
+        }
+
+        return writeBack(items, source);
+    }
+
+    /**
+     * Detects the natural runs in the array. Strictly descending runs are reversed,
+     * and runs shorter than MIN_RUN are extended by binary insertion sort.
+     * @return  the start positions of all runs, followed by array.length
+     */
+    private int[] findRuns(E[] array, Comparator<E> comparator) {
+        int[] runStarts = new int[array.length / MIN_RUN + 2];
+        int numberOfRuns = 0;
+        int start = 0;
+
+        while (start < array.length) {
+            int runEnd = start + 1;
+            if (runEnd < array.length) {
+                if (comparator.compare(array[runEnd], array[start]) < 0) {
+                    // only strictly descending runs can be reversed without breaking stability
+                    while (runEnd < array.length && comparator.compare(array[runEnd], array[runEnd - 1]) < 0) {
+                        runEnd++;
+                    }
+                    reverse(array, start, runEnd - 1);
+                } else {
+                    while (runEnd < array.length && comparator.compare(array[runEnd], array[runEnd - 1]) >= 0) {
+                        runEnd++;
+                    }
+                }
+            }
+
+            // extend a short run, such that the number of runs to be merged remains limited
+            int minRunEnd = Integer.min(array.length, start + MIN_RUN);
+            if (runEnd < minRunEnd) {
+                binaryInsertionSort(array, start, runEnd, minRunEnd, comparator);
+                runEnd = minRunEnd;
+            }
+
+            runStarts[numberOfRuns++] = start;
+            start = runEnd;
+        }
+
+        runStarts[numberOfRuns] = array.length;
+        return Arrays.copyOf(runStarts, numberOfRuns + 1);
+    }
+
+    /**
+     * Merges the sorted runs from[low..middle-1] and from[middle..high-1] into to[low..high-1]
+     * taking items from the first run upon equality, which keeps the merge stable
+     */
+    private void merge(E[] from, E[] to, int low, int middle, int high, Comparator<E> comparator) {
+        if (comparator.compare(from[middle - 1], from[middle]) <= 0) {
+            // the runs are in order already, which is common for almost sorted lists
+            System.arraycopy(from, low, to, low, high - low);
+            return;
+        }
+
+        int i = low;
+        int j = middle;
+        int k = low;
+        while (i < middle && j < high) {
+            to[k++] = comparator.compare(from[j], from[i]) < 0 ? from[j++] : from[i++];
+        }
+        System.arraycopy(from, i, to, k, middle - i);
+        System.arraycopy(from, j, to, k + middle - i, high - j);
+    }
+
+    /**
+     * Extends the sorted section array[low..sortedEnd-1] to array[low..high-1] by stable binary insertion
+     */
+    private void binaryInsertionSort(E[] array, int low, int sortedEnd, int high, Comparator<E> comparator) {
+        for (int i = sortedEnd; i < high; i++) {
+            E item = array[i];
+
+            // find the position after all items that are not greater than item
+            int left = low;
+            int right = i;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (comparator.compare(item, array[mid]) < 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+
+            System.arraycopy(array, left, array, left + 1, i - left);
+            array[left] = item;
+        }
+    }
+
+    private void reverse(E[] array, int low, int high) {
+        while (low < high) {
+            swap(array, low++, high--);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package spotifycharts;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serves concurrent chart queries from one immutable snapshot of the songs of a week.
+ * The snapshot is a private SongTable, which is never changed after construction,
+ * such that any number of queries can read it at the same time without locking.
+ * The sorted permutation of every chart is calculated once, on the first query of that chart,
+ * and is shared by all later (and concurrent) queries of the same chart, whatever their number of songs.
+ * Queries are answered asynchronously on the executor of the service, e.g. a virtual thread per task executor.
+ */
+public class ChartQueryService implements AutoCloseable {
+
+    /**
+     * The charts that do not depend on a country or language
+     */
+    private enum Ranking {
+        MOST_STREAMED,
+        LEAST_STREAMED,
+        DUTCH_NATIONAL
+    }
+
+    private final SongTable snapshot;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    // the (pending) sorted permutation of every chart by its Ranking, Song.Country or Song.Language
+    private final Map<Enum<?>, CompletableFuture<int[]>> rankings = new ConcurrentHashMap<>();
+    private final AtomicInteger numRankingsCalculated = new AtomicInteger();
+
+    /**
+     * Creates a service with a snapshot of the songs, which answers queries on threads of its own
+     * @param songs
+     */
+    public ChartQueryService(Collection<Song> songs) {
+        this(songs, Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "chart-query");
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    /**
+     * Creates a service with a snapshot of the songs, which answers queries on the given executor
+     * the executor is not shut down by close()
+     * @param songs
+     * @param executor
+     */
+    public ChartQueryService(Collection<Song> songs, ExecutorService executor) {
+        this(songs, executor, false);
+    }
+
+    private ChartQueryService(Collection<Song> songs, ExecutorService executor, boolean ownsExecutor) {
+        this.snapshot = SongTable.of(songs);
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * @param numTops
+     * @return  the numTops songs with the highest streams count total
+     */
+    public CompletableFuture<List<Song>> mostStreamed(int numTops) {
+        return query(Ranking.MOST_STREAMED, snapshot::rankByHighestStreamsCountTotal, numTops);
+    }
+
+    /**
+     * @param numSongs
+     * @return  the numSongs songs with the lowest streams count total, lowest first
+     */
+    public CompletableFuture<List<Song>> leastStreamed(int numSongs) {
+        return query(Ranking.LEAST_STREAMED, snapshot::rankByLowestStreamsCountTotal, numSongs);
+    }
+
+    /**
+     * @param numTops
+     * @return  the lead songs of the Dutch national chart, like Song::compareForDutchNationalChart
+     */
+    public CompletableFuture<List<Song>> dutchNationalChart(int numTops) {
+        return query(Ranking.DUTCH_NATIONAL, snapshot::rankForDutchNationalChart, numTops);
+    }
+
+    /**
+     * @param country
+     * @param numTops
+     * @return  the numTops songs with the highest streams count in the country
+     */
+    public CompletableFuture<List<Song>> countryChart(Song.Country country, int numTops) {
+        return query(country, () -> snapshot.rankByHighestStreamsCountOfCountry(country), numTops);
+    }
+
+    /**
+     * @param language
+     * @param numTops
+     * @return  the numTops songs of the language with the highest streams count total
+     */
+    public CompletableFuture<List<Song>> languageChart(Song.Language language, int numTops) {
+        return query(language, () -> snapshot.rankByHighestStreamsCountTotalOfLanguage(language), numTops);
+    }
+
+    /**
+     * @return  the number of songs in the snapshot
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * @return  the number of chart permutations that have been sorted so far
+     */
+    int getNumRankingsCalculated() {
+        return numRankingsCalculated.get();
+    }
+
+    /**
+     * Shuts down the executor of the service, if it has been created by the service itself
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private CompletableFuture<List<Song>> query(Enum<?> chart, Supplier<int[]> ranker, int numSongs) {
+        checkNumSongs(numSongs);
+        return ranking(chart, ranker).thenApplyAsync(indices -> snapshot.getSongs(indices, numSongs), executor);
+    }
+
+    /**
+     * Provides the shared permutation of the chart, scheduling its calculation on the first request only
+     */
+    private CompletableFuture<int[]> ranking(Enum<?> chart, Supplier<int[]> ranker) {
+        return rankings.computeIfAbsent(chart, key -> CompletableFuture.supplyAsync(() -> {
+            numRankingsCalculated.incrementAndGet();
+            return ranker.get();
+        }, executor));
+    }
+
+    private static void checkNumSongs(int numSongs) {
+        if (numSongs < 0) {
+            throw new IllegalArgumentException("numSongs must not be negative: " + numSongs);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package spotifycharts;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The fixed-width binary record format of songs in a chart archive file.
+ * Every record holds:
+ *      id              int     the id of the song, e.g. its index in a SongTable
+ *      language        byte    the ordinal of its Song.Language
+ *      (padding)       3 bytes
+ *      streamsCounts   int[7]  the streams count of every Song.Country, by ordinal
+ * in little-endian byte order, such that records can be accessed in place in a memory-mapped file.
+ */
+public final class ChartRecords {
+
+    public static final int ID_OFFSET = 0;
+    public static final int LANGUAGE_OFFSET = 4;
+    public static final int STREAMS_COUNTS_OFFSET = 8;
+    public static final int RECORD_SIZE = STREAMS_COUNTS_OFFSET + Song.Country.values().length * Integer.BYTES;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int WRITE_BUFFER_RECORDS = 4096;
+    // the totals of records need up to 35 bits, the Dutch flag of a key is kept well above them
+    private static final int DUTCH_FLAG_SHIFT = 40;
+
+    /**
+     * Calculates the sort key of the record at an offset in a buffer of records
+     * ordening records by increasing key orders them according to a ranking scheme
+     */
+    public interface RecordKey {
+        long keyOf(ByteBuffer records, int offset);
+    }
+
+    /**
+     * ranks records by decreasing streams count total, like Song::compareByHighestStreamsCountTotal
+     */
+    public static final RecordKey BY_HIGHEST_STREAMS_COUNT_TOTAL = (records, offset) -> -streamsCountTotal(records, offset);
+
+    /**
+     * ranks Dutch records upfront and then by decreasing streams count total, like Song::compareForDutchNationalChart
+     */
+    public static final RecordKey FOR_DUTCH_NATIONAL_CHART = (records, offset) ->
+            ((records.get(offset + LANGUAGE_OFFSET) == Song.Language.NL.ordinal() ? 0L : 1L) << DUTCH_FLAG_SHIFT)
+                    - streamsCountTotal(records, offset);
+
+    private ChartRecords() {
+    }
+
+    public static int id(ByteBuffer records, int offset) {
+        return records.getInt(offset + ID_OFFSET);
+    }
+
+    public static long streamsCountTotal(ByteBuffer records, int offset) {
+        long total = 0;
+        for (int c = 0, position = offset + STREAMS_COUNTS_OFFSET; c < Song.Country.values().length; c++, position += Integer.BYTES) {
+            total += records.getInt(position);
+        }
+        return total;
+    }
+
+    /**
+     * Writes the records of all songs into a (new) archive file, using the index of every song as its id
+     * @param songs
+     * @param archiveFile
+     */
+    public static void write(List<Song> songs, Path archiveFile) {
+        try (FileChannel channel = FileChannel.open(archiveFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_RECORDS * RECORD_SIZE).order(BYTE_ORDER);
+            for (int id = 0; id < songs.size(); id++) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    writeFully(channel, buffer);
+                }
+                Song song = songs.get(id);
+                int offset = buffer.position();
+                buffer.putInt(offset + ID_OFFSET, id);
+                buffer.put(offset + LANGUAGE_OFFSET, (byte) song.getLanguage().ordinal());
+                for (Song.Country country : Song.Country.values()) {
+                    buffer.putInt(offset + STREAMS_COUNTS_OFFSET + country.ordinal() * Integer.BYTES,
+                            song.getStreamsCountOfCountry(country));
+                }
+                buffer.position(offset + RECORD_SIZE);
+            }
+            writeFully(channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write chart archive " + archiveFile, e);
+        }
+    }
+
+    /**
+     * Reads the ids of all records in an archive file, in the order of the file
+     * @param archiveFile
+     * @return
+     */
+    public static int[] readIds(Path archiveFile) {
+        try (FileChannel channel = FileChannel.open(archiveFile, StandardOpenOption.READ)) {
+            int numRecords = Math.toIntExact(channel.size() / RECORD_SIZE);
+            int[] ids = new int[numRecords];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_RECORDS * RECORD_SIZE).order(BYTE_ORDER);
+            int i = 0;
+            while (i < numRecords) {
+                buffer.clear();
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // fill the buffer as far as the file allows
+                }
+                buffer.flip();
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.limit(); offset += RECORD_SIZE) {
+                    ids[i++] = id(buffer, offset);
+                }
+            }
+            return ids;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read chart archive " + archiveFile, e);
+        }
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,6 +1,9 @@
 package spotifycharts;
 
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class ChartsCalculator {
     private final static int MAX_STREAM_COUNT = 10000;
@@ -10,6 +13,19 @@ public class ChartsCalculator {
     private final List<Song> songs = new ArrayList<>();
     public List<Song> getSongs() { return this.songs; }
 
+    // the live charts that are kept up-to-date with every registered song and every change of streams counts
+    // changes are forwarded from any thread that changes a song, so the list may be read while a chart is added
+    private final List<LiveChart> liveCharts = new CopyOnWriteArrayList<>();
+    // a single change listener per song forwards changes to all live charts, once any live chart exists
+    private final Consumer<Song> liveChartsUpdater = song -> {
+        for (LiveChart liveChart : liveCharts) {
+            liveChart.accept(song);
+        }
+    };
+    private LiveChart mostStreamedChart = null;
+    private LiveChart dutchNationalChart = null;
+    private LiveChart leastStreamedChart = null;
+
     public ChartsCalculator(long seed) {
         randomizer = new Random(seed);
         // propagate the seed for test data generation
@@ -31,33 +47,139 @@ public class ChartsCalculator {
             // prepares a sample song from a known set of titles
             Song song = SongBuilder.createSample(i);
             songs.add(song);
+            registerWithLiveCharts(song);
             // prepares semi-random per-country steams counts
             obtainStreamCounts(song);
         }
         return songs;
     }
 
+    /**
+     * Prepares a large test data set of unique songs with realistic, heavy-tailed streams counts:
+     * a few hits collect most streams and the long tail of songs is hardly streamed at all
+     * @param nrOfSongs     the number of songs that shall be prepared in the test data set
+     * @return              the complete list of all songs that have been prepared
+     */
+    public List<Song> registerZipfDistributedSongs(int nrOfSongs) {
+        List<Song> newSongs = SongBuilder.createZipfDistributedSongs(nrOfSongs,
+                SongBuilder.DEFAULT_ZIPF_EXPONENT, SongBuilder.DEFAULT_MAX_STREAMS_COUNT);
+        songs.addAll(newSongs);
+        for (Song song : newSongs) {
+            registerWithLiveCharts(song);
+        }
+        return songs;
+    }
+
+    private void registerWithLiveCharts(Song song) {
+        if (!liveCharts.isEmpty()) {
+            song.addChangeListener(liveChartsUpdater);
+            for (LiveChart liveChart : liveCharts) {
+                liveChart.register(song);
+            }
+        }
+    }
+
+    /**
+     * Creates a service that answers concurrent chart queries from a snapshot of all songs that have been registered
+     * changes to the streams counts hereafter are not reflected by the service
+     * @return          the new query service, which should be closed after use
+     */
+    public ChartQueryService createQueryService() {
+        return new ChartQueryService(songs);
+    }
+
+    /**
+     * Creates a live chart of all songs that have been registered so far
+     * the chart will be kept up-to-date with songs that are registered hereafter as well
+     * @param numTops   the number of lead songs of the chart
+     * @param ranking   orders the lead songs upfront
+     * @return          the new live chart
+     */
+    public LiveChart createLiveChart(int numTops, Comparator<Song> ranking) {
+        LiveChart liveChart = new LiveChart(numTops, ranking, Collections.unmodifiableList(songs));
+        if (liveCharts.isEmpty()) {
+            for (Song song : songs) {
+                song.addChangeListener(liveChartsUpdater);
+            }
+        }
+        liveCharts.add(liveChart);
+        return liveChart;
+    }
+
     /**
      * Calculates the charts and shows key results
+     * The charts are maintained live, such that repeated calls need not sort all songs again
      */
     public void showResults() {
-        Sorter<Song> sorter = new SongSorter();
+        if (mostStreamedChart == null) {
+            mostStreamedChart = createLiveChart(5, Song.BY_HIGHEST_STREAMS_COUNT_TOTAL);
+            dutchNationalChart = createLiveChart(5, Song.FOR_DUTCH_NATIONAL_CHART);
+            leastStreamedChart = createLiveChart(10, Song.BY_LOWEST_STREAMS_COUNT_TOTAL);
+        }
         System.out.printf("%d songs have been included in this week's charts \n", songs.size());
 
-        Collections.shuffle(songs);
+        System.out.printf("\nThe five most streamed songs are:\n%s\n", mostStreamedChart.getTops());
+
+        System.out.printf("\nThe top-five in the Dutch-language national chart are:\n%s\n", dutchNationalChart.getTops());
+
+        System.out.printf("\nThe bottom-ten least streamed songs are:\n%s\n", leastStreamedChart.getTops());
 
-        sorter.selInsBubSort(songs, Song::compareByHighestStreamsCountTotal);
-        System.out.printf("\nThe five most streamed songs are:\n%s\n", songs.subList(0,5));
+        NationalCharts nationalCharts = calculateNationalCharts(1);
+        System.out.println("\nThe number one songs of every country are:");
+        for (Song.Country country : Song.Country.values()) {
+            System.out.printf("%s: %s\n", country, nationalCharts.getCountryChart(country));
+        }
+    }
 
-        sorter.quickSort(songs, Song::compareForDutchNationalChart);
-        System.out.printf("\nThe top-five in the Dutch-language national chart are:\n%s\n", songs.subList(0,5));
+    /**
+     * Calculates the charts of every country and every language in a single parallel pass over all songs
+     * @param numTops   the length of every chart
+     * @return          all national charts
+     */
+    public NationalCharts calculateNationalCharts(int numTops) {
+        return NationalCharts.calculate(songs, numTops);
+    }
+
+    /**
+     * Copies all songs with their current streams counts into a columnar table for bulk ranking
+     * @return  the new table, in which index i refers to getSongs().get(i)
+     */
+    public SongTable createSongTable() {
+        return SongTable.of(songs);
+    }
 
-        sorter.topsHeapSort(10, songs, Comparator.comparing(Song::getStreamsCountTotal));
-        System.out.printf("\nThe bottom-ten least streamed songs are:\n%s\n", songs.subList(0,10));
+    /**
+     * Imports the streams counts of daily streaming reports on top of the streams counts of all registered songs
+     * songs of the reports which have not been registered are added to the resulting table
+     * @param reportFiles   the CSV reports, as specified by StreamingReportImporter
+     * @return  a new table with all registered songs and the accumulated streams counts of all reports
+     */
+    public SongTable importStreamingReports(Collection<Path> reportFiles) {
+        SongTable songTable = createSongTable();
+        StreamingReportImporter importer = new StreamingReportImporter(songTable);
+        for (Path reportFile : reportFiles) {
+            importer.importReport(reportFile);
+        }
+        return songTable;
     }
 
-    // country relative sizes
-    private static final int[] countryMultipliers = {3,1,3,1,3,2,2};
+    /**
+     * Calculates the charts from a columnar song table and shows key results
+     * each chart is obtained from a ranking of song indices, which sorts primitive columns only
+     * @param songTable
+     */
+    public void showResults(SongTable songTable) {
+        System.out.printf("%d songs have been included in this week's charts \n", songTable.size());
+
+        System.out.printf("\nThe five most streamed songs are:\n%s\n",
+                songTable.getSongs(songTable.rankByHighestStreamsCountTotal(), 5));
+
+        System.out.printf("\nThe top-five in the Dutch-language national chart are:\n%s\n",
+                songTable.getSongs(songTable.rankForDutchNationalChart(), 5));
+
+        System.out.printf("\nThe bottom-ten least streamed songs are:\n%s\n",
+                songTable.getSongs(songTable.rankByLowestStreamsCountTotal(), 10));
+    }
 
     /**
      * Prepares semi-random, per-country streams counts for a song
@@ -66,10 +188,8 @@ public class ChartsCalculator {
     public void obtainStreamCounts(Song song) {
         for (Song.Country country : Song.Country.values()) {
             // apply some realistic, language dependent multiplication factors
-            int languageMultiplier =
-                    (song.getLanguage() == Song.Language.EN || song.getLanguage().toString().equals(country.toString())) ? 2 : 1;
             song.setStreamsCountOfCountry(country,
-                    randomizer.nextInt(MAX_STREAM_COUNT * languageMultiplier * countryMultipliers[country.ordinal()]));
+                    randomizer.nextInt(MAX_STREAM_COUNT * SongBuilder.streamsCountMultiplier(song.getLanguage(), country)));
         }
     }
 }
@@ -0,0 +1,194 @@
+package spotifycharts;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts the fixed-width records of a chart archive file (see ChartRecords) by external merge sort,
+ * such that archives that are far larger than the heap can be ranked with a bounded heap:
+ *  1. the archive is mapped into memory in runs of at most maxRecordsInMemory records;
+ *     the keys of every run are sorted as primitives and the records of the run are copied in sorted order
+ *     into a temporary run file
+ *  2. all run files are mapped into memory and merged into the output file by a k-way merge
+ * The heap holds the keys and positions of one run only (12 bytes per record);
+ * all record data stays in the (memory-mapped) files.
+ */
+public class ExternalRecordSorter {
+
+    private static final int MAX_MAPPED_BYTES = Integer.MAX_VALUE - ChartRecords.RECORD_SIZE;
+    private static final int OUTPUT_BUFFER_RECORDS = 4096;
+
+    private final int maxRecordsInMemory;
+    private final Path tempDirectory;
+
+    /**
+     * @param maxRecordsInMemory    the maximum number of records of which keys are sorted in memory at once
+     * @param tempDirectory         the directory for the temporary run files
+     */
+    public ExternalRecordSorter(int maxRecordsInMemory, Path tempDirectory) {
+        if (maxRecordsInMemory < 2) {
+            throw new IllegalArgumentException("maxRecordsInMemory must be at least 2: " + maxRecordsInMemory);
+        }
+        // a run shall fit in a single mapped buffer
+        this.maxRecordsInMemory = Integer.min(maxRecordsInMemory, MAX_MAPPED_BYTES / ChartRecords.RECORD_SIZE);
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Sorts all records of the input archive by increasing key into the output archive
+     * @param inputFile
+     * @param outputFile    will be created or overwritten
+     * @param recordKey     provides the sort key of every record
+     * @return  the number of runs that have been sorted in memory
+     */
+    public int sort(Path inputFile, Path outputFile, ChartRecords.RecordKey recordKey) {
+        List<Path> runFiles = new ArrayList<>();
+        try {
+            try (FileChannel input = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+                if (input.size() % ChartRecords.RECORD_SIZE != 0) {
+                    throw new IllegalArgumentException("Chart archive " + inputFile + " has an incomplete record");
+                }
+                long numRecords = input.size() / ChartRecords.RECORD_SIZE;
+                if (numRecords <= maxRecordsInMemory) {
+                    // a single run, which is sorted straight into the output
+                    sortRun(input, 0, (int) numRecords, outputFile, recordKey);
+                    return 1;
+                }
+                for (long first = 0; first < numRecords; first += maxRecordsInMemory) {
+                    Path runFile = Files.createTempFile(tempDirectory, "chart-run-", ".bin");
+                    runFiles.add(runFile);
+                    sortRun(input, first, (int) Long.min(maxRecordsInMemory, numRecords - first), runFile, recordKey);
+                }
+            }
+            mergeRuns(runFiles, outputFile, recordKey);
+            return runFiles.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not sort chart archive " + inputFile, e);
+        } finally {
+            for (Path runFile : runFiles) {
+                try {
+                    Files.deleteIfExists(runFile);
+                } catch (IOException e) {
+                    // a left-over temporary file does not affect the result
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts numRecords records from the mapped input, starting at record first, into the run file
+     */
+    private void sortRun(FileChannel input, long first, int numRecords, Path runFile,
+                         ChartRecords.RecordKey recordKey) throws IOException {
+        int runSize = numRecords * ChartRecords.RECORD_SIZE;
+        MappedByteBuffer records = input.map(FileChannel.MapMode.READ_ONLY, first * ChartRecords.RECORD_SIZE, runSize);
+        records.order(ChartRecords.BYTE_ORDER);
+
+        long[] keys = new long[numRecords];
+        int[] offsets = new int[numRecords];
+        for (int i = 0, offset = 0; i < numRecords; i++, offset += ChartRecords.RECORD_SIZE) {
+            keys[i] = recordKey.keyOf(records, offset);
+            offsets[i] = offset;
+        }
+        SorterImpl.recursiveKeysQuickSort(keys, offsets, 0, numRecords - 1);
+
+        try (FileChannel output = FileChannel.open(runFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer run = output.map(FileChannel.MapMode.READ_WRITE, 0, runSize);
+            for (int i = 0; i < numRecords; i++) {
+                run.put(i * ChartRecords.RECORD_SIZE, records, offsets[i], ChartRecords.RECORD_SIZE);
+            }
+            run.force();
+        }
+    }
+
+    /**
+     * Merges the sorted run files into the output file, repeatedly taking the record with the lowest key
+     * from the heads of all runs
+     */
+    private void mergeRuns(List<Path> runFiles, Path outputFile, ChartRecords.RecordKey recordKey) throws IOException {
+        List<FileChannel> channels = new ArrayList<>();
+        try (FileChannel output = FileChannel.open(outputFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            PriorityQueue<RunCursor> heads = new PriorityQueue<>(runFiles.size());
+            for (int r = 0; r < runFiles.size(); r++) {
+                FileChannel channel = FileChannel.open(runFiles.get(r), StandardOpenOption.READ);
+                channels.add(channel);
+                MappedByteBuffer run = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                run.order(ChartRecords.BYTE_ORDER);
+                RunCursor cursor = new RunCursor(run, r, recordKey);
+                if (cursor.hasRecord()) {
+                    heads.add(cursor);
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_RECORDS * ChartRecords.RECORD_SIZE)
+                    .order(ChartRecords.BYTE_ORDER);
+            while (!heads.isEmpty()) {
+                RunCursor cursor = heads.poll();
+                if (buffer.remaining() < ChartRecords.RECORD_SIZE) {
+                    ChartRecords.writeFully(output, buffer);
+                }
+                buffer.put(buffer.position(), cursor.run, cursor.offset, ChartRecords.RECORD_SIZE);
+                buffer.position(buffer.position() + ChartRecords.RECORD_SIZE);
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+            ChartRecords.writeFully(output, buffer);
+        } finally {
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * The position of the next record to be merged from a sorted run
+     * equal keys are taken from earlier runs first
+     */
+    private static class RunCursor implements Comparable<RunCursor> {
+        private final ByteBuffer run;
+        private final int runIndex;
+        private final ChartRecords.RecordKey recordKey;
+        private int offset = 0;
+        private long key;
+
+        RunCursor(ByteBuffer run, int runIndex, ChartRecords.RecordKey recordKey) {
+            this.run = run;
+            this.runIndex = runIndex;
+            this.recordKey = recordKey;
+            if (hasRecord()) {
+                key = recordKey.keyOf(run, offset);
+            }
+        }
+
+        boolean hasRecord() {
+            return offset + ChartRecords.RECORD_SIZE <= run.limit();
+        }
+
+        boolean advance() {
+            offset += ChartRecords.RECORD_SIZE;
+            if (!hasRecord()) {
+                return false;
+            }
+            key = recordKey.keyOf(run, offset);
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunCursor other) {
+            int result = Long.compare(key, other.key);
+            return result != 0 ? result : Integer.compare(runIndex, other.runIndex);
+        }
+    }
+}
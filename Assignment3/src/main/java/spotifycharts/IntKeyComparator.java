@@ -0,0 +1,82 @@
+package spotifycharts;
+
+import java.util.Comparator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * A comparator that orders items by a primitive int key, in ascending or descending order,
+ * optionally preceded by a boolean flag that puts all flagged items upfront (or last).
+ * Keys are compared without boxing, and both criteria are combined into a single long sortKey.
+ * SorterImpl.quickSort, mergeSort and topsHeapSort (and the AdaptiveMergeSorter) recognise this comparator
+ * and calculate every sort key once, after which they sort primitive keys without calling the comparator at all.
+ * compare itself still calculates both sort keys on every call, through the key extractor and flag.
+ * reversed() yields another IntKeyComparator instead of a wrapper around this one.
+ * @param <E>
+ */
+public final class IntKeyComparator<E> implements Comparator<E> {
+
+    private final ToIntFunction<? super E> keyExtractor;
+    private final boolean descending;
+    private final Predicate<? super E> flag;    // null if items are not ordered by a flag
+    private final boolean flaggedFirst;
+
+    private IntKeyComparator(ToIntFunction<? super E> keyExtractor, boolean descending,
+                             Predicate<? super E> flag, boolean flaggedFirst) {
+        this.keyExtractor = keyExtractor;
+        this.descending = descending;
+        this.flag = flag;
+        this.flaggedFirst = flaggedFirst;
+    }
+
+    /**
+     * @param keyExtractor
+     * @return  a comparator that orders items by increasing key
+     */
+    public static <E> IntKeyComparator<E> ascending(ToIntFunction<? super E> keyExtractor) {
+        return new IntKeyComparator<>(keyExtractor, false, null, true);
+    }
+
+    /**
+     * @param keyExtractor
+     * @return  a comparator that orders items by decreasing key
+     */
+    public static <E> IntKeyComparator<E> descending(ToIntFunction<? super E> keyExtractor) {
+        return new IntKeyComparator<>(keyExtractor, true, null, true);
+    }
+
+    /**
+     * @param flag
+     * @return  a comparator that orders all items with the flag upfront, and then by the key of this comparator
+     */
+    public IntKeyComparator<E> flaggedFirst(Predicate<? super E> flag) {
+        return new IntKeyComparator<>(keyExtractor, descending, flag, true);
+    }
+
+    /**
+     * Combines the flag and the key of the item into one sort key,
+     * such that ordening items by increasing sort key is equivalent to ordening them by this comparator
+     * @param item
+     * @return  the sort key of the item
+     */
+    public long sortKey(E item) {
+        int key = keyExtractor.applyAsInt(item);
+        // map the key onto 0..2^32-1 in the required order
+        long keyPart = descending ? (long) Integer.MAX_VALUE - key : (long) key - Integer.MIN_VALUE;
+        if (flag == null) {
+            return keyPart;
+        }
+        boolean leading = flag.test(item) == flaggedFirst;
+        return leading ? keyPart : keyPart | (1L << Integer.SIZE);
+    }
+
+    @Override
+    public int compare(E item1, E item2) {
+        return Long.compare(sortKey(item1), sortKey(item2));
+    }
+
+    @Override
+    public IntKeyComparator<E> reversed() {
+        return new IntKeyComparator<>(keyExtractor, !descending, flag, !flaggedFirst);
+    }
+}
@@ -0,0 +1,274 @@
+package spotifycharts;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Maintains the lead collection of numTops songs according to a ranking scheme,
+ * while the streams counts of the songs keep changing.
+ * The owner of the chart forwards every change of a song to accept (e.g. from a change listener of the song),
+ * such that getTops is always current without a full sort.
+ *
+ * Only the tops are held in memory by the chart, in an indexed heap with the weakest top song at its root.
+ * All other songs are only referred to by the collection of songs of the owner, which is not copied.
+ * The chart relies on a boundary: a copy of the weakest top song, which ranks at or before every other song.
+ *  - a change of a top song is repaired in O(log numTops)
+ *  - a change of any other song costs a single comparison with the weakest top song,
+ *    plus O(log numTops) if the song is promoted into the tops
+ *  - only if the weakest top song drops behind the boundary, one of the other songs may have to take its place;
+ *    the tops are then refilled by a single scan of all songs in O(n log numTops) upon the next getTops
+ * Changes are forwarded on the threads that change the songs, e.g. concurrent Song.addStreams calls,
+ * so all public methods are synchronized on the chart.
+ */
+public class LiveChart implements Consumer<Song> {
+
+    private final int numTops;
+    private final Comparator<Song> ranking;
+    private final Collection<Song> songs;   // all songs of the chart, maintained by the owner
+    private final IndexedHeap tops;         // root is the weakest song of the tops
+    private Song boundary = null;           // a copy of the weakest top song, when the tops were last known correct
+    private Song boundarySource = null;     // the weakest top song that has been copied into the boundary
+    private boolean refillNeeded;           // whether the tops shall be recalculated from all songs
+
+    /**
+     * Creates a chart of the given songs
+     * the owner shall notify the chart of every change, addition and removal of the songs hereafter
+     * @param numTops   the number of lead songs that shall be maintained
+     * @param ranking   orders the songs that shall lead the chart upfront
+     * @param songs     all songs of the chart, which the chart refers to without copying
+     */
+    public LiveChart(int numTops, Comparator<Song> ranking, Collection<Song> songs) {
+        if (numTops < 0) {
+            throw new IllegalArgumentException("numTops must not be negative: " + numTops);
+        }
+        this.numTops = numTops;
+        this.ranking = ranking;
+        this.songs = songs;
+        this.tops = new IndexedHeap(ranking.reversed());
+        this.refillNeeded = true;
+    }
+
+    /**
+     * Includes a song that has been added to the songs of the chart
+     * @param song
+     */
+    public synchronized void register(Song song) {
+        if (refillNeeded || numTops == 0) {
+            return;
+        }
+        if (tops.size() < numTops) {
+            tops.add(song);
+            updateBoundary();
+        } else if (ranking.compare(song, tops.peek()) < 0) {
+            // the song beats the weakest top song, which drops out of the tops
+            tops.poll();
+            tops.add(song);
+            updateBoundary();
+        }
+    }
+
+    /**
+     * Excludes a song that has been removed from the songs of the chart
+     * @param song
+     */
+    public synchronized void unregister(Song song) {
+        if (!refillNeeded && tops.remove(song)) {
+            // the strongest other song shall take the vacant position
+            refillNeeded = songs.size() > tops.size();
+            updateBoundary();
+        }
+    }
+
+    /**
+     * Repairs the chart after a change of the streams counts of one of its songs
+     * @param song
+     */
+    @Override
+    public synchronized void accept(Song song) {
+        if (refillNeeded || numTops == 0) {
+            return;
+        }
+        if (tops.contains(song)) {
+            tops.update(song);
+            if (tops.size() == numTops && ranking.compare(tops.peek(), boundary) > 0) {
+                // the weakest top song may have dropped behind any of the other songs
+                refillNeeded = true;
+                return;
+            }
+        } else if (tops.size() < numTops) {
+            tops.add(song);
+        } else if (ranking.compare(song, tops.peek()) < 0) {
+            // the song beats the weakest top song, which drops out of the tops
+            tops.poll();
+            tops.add(song);
+        } else {
+            return;
+        }
+        updateBoundary();
+    }
+
+    /**
+     * @return  the current lead songs of the chart, sorted according to the ranking scheme
+     */
+    public synchronized List<Song> getTops() {
+        if (refillNeeded) {
+            refill();
+        }
+        List<Song> result = new ArrayList<>(tops.items);
+        result.sort(ranking);
+        return result;
+    }
+
+    public int getNumTops() {
+        return numTops;
+    }
+
+    /**
+     * @return  the total number of songs of this chart
+     */
+    public int size() {
+        return songs.size();
+    }
+
+    /**
+     * Recalculates the tops by a single scan of all songs, holding no more than numTops songs at a time
+     */
+    private void refill() {
+        tops.clear();
+        if (numTops > 0) {
+            for (Song song : songs) {
+                if (tops.size() < numTops) {
+                    tops.add(song);
+                } else if (ranking.compare(song, tops.peek()) < 0) {
+                    tops.poll();
+                    tops.add(song);
+                }
+            }
+        }
+        refillNeeded = false;
+        updateBoundary();
+    }
+
+    /**
+     * Takes a copy of the streams counts of the weakest top song,
+     * every other song ranks at or after this copy as long as no song drops behind it
+     */
+    private void updateBoundary() {
+        if (tops.size() == 0) {
+            boundary = null;
+            boundarySource = null;
+            return;
+        }
+        Song weakest = tops.peek();
+        if (boundarySource != weakest) {
+            boundary = new Song(weakest.getArtist(), weakest.getTitle(), weakest.getLanguage());
+            boundarySource = weakest;
+        }
+        for (Song.Country country : Song.Country.values()) {
+            boundary.setStreamsCountOfCountry(country, weakest.getStreamsCountOfCountry(country));
+        }
+    }
+
+    /**
+     * A zero-based min-heap according to its comparator, which tracks the position of every song,
+     * such that any song can be repositioned after a change of its key in O(log n)
+     */
+    private static class IndexedHeap {
+        private final Comparator<Song> comparator;
+        private final List<Song> items = new ArrayList<>();
+        private final Map<Song, Integer> positions = new IdentityHashMap<>();
+
+        IndexedHeap(Comparator<Song> comparator) {
+            this.comparator = comparator;
+        }
+
+        int size() {
+            return items.size();
+        }
+
+        boolean contains(Song song) {
+            return positions.containsKey(song);
+        }
+
+        Song peek() {
+            return items.get(0);
+        }
+
+        void clear() {
+            items.clear();
+            positions.clear();
+        }
+
+        void add(Song song) {
+            items.add(song);
+            positions.put(song, items.size() - 1);
+            swim(items.size() - 1);
+        }
+
+        Song poll() {
+            Song root = items.get(0);
+            remove(root);
+            return root;
+        }
+
+        boolean remove(Song song) {
+            Integer position = positions.remove(song);
+            if (position == null) {
+                return false;
+            }
+            Song last = items.remove(items.size() - 1);
+            if (position < items.size()) {
+                // fill the gap with the last item and repair the heap condition around it
+                place(last, position);
+                update(last);
+            }
+            return true;
+        }
+
+        void update(Song song) {
+            int position = positions.get(song);
+            swim(position);
+            sink(positions.get(song));
+        }
+
+        private void swim(int childIndex) {
+            Song child = items.get(childIndex);
+            while (childIndex > 0) {
+                int parentIndex = (childIndex - 1) / 2;
+                Song parent = items.get(parentIndex);
+                if (comparator.compare(child, parent) >= 0) {
+                    break;
+                }
+                place(parent, childIndex);
+                childIndex = parentIndex;
+            }
+            place(child, childIndex);
+        }
+
+        private void sink(int parentIndex) {
+            Song parent = items.get(parentIndex);
+            int heapSize = items.size();
+            while (true) {
+                int childIndex = 2 * parentIndex + 1;
+                if (childIndex >= heapSize) {
+                    break;
+                }
+                if (childIndex + 1 < heapSize && comparator.compare(items.get(childIndex + 1), items.get(childIndex)) < 0) {
+                    childIndex++;
+                }
+                Song child = items.get(childIndex);
+                if (comparator.compare(child, parent) >= 0) {
+                    break;
+                }
+                place(child, parentIndex);
+                parentIndex = childIndex;
+            }
+            place(parent, parentIndex);
+        }
+
+        private void place(Song song, int position) {
+            items.set(position, song);
+            positions.put(song, position);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package spotifycharts;
+
+import java.util.*;
+
+/**
+ * The national charts of every country and every language, calculated together in a single scan of all songs.
+ * The chart of a country ranks all songs by decreasing streams count in that country,
+ * the chart of a language ranks the songs of that language by decreasing streams count total.
+ */
+public class NationalCharts {
+
+    private final int numTops;
+    private final Map<Song.Country, List<Song>> countryCharts = new EnumMap<>(Song.Country.class);
+    private final Map<Song.Language, List<Song>> languageCharts = new EnumMap<>(Song.Language.class);
+
+    private NationalCharts(int numTops, Accumulator accumulator) {
+        this.numTops = numTops;
+        for (Song.Country country : Song.Country.values()) {
+            countryCharts.put(country, accumulator.countryTops[country.ordinal()].toSortedList());
+        }
+        for (Song.Language language : Song.Language.values()) {
+            languageCharts.put(language, accumulator.languageTops[language.ordinal()].toSortedList());
+        }
+    }
+
+    /**
+     * Calculates the charts of all countries and languages in one (parallel) pass over the songs,
+     * collecting the lead songs of every chart into a bounded heap of numTops songs
+     * which costs O(n log numTops) instead of a full sort per chart
+     * @param songs
+     * @param numTops   the (maximum) length of every chart
+     * @return  all national charts
+     */
+    public static NationalCharts calculate(Collection<Song> songs, int numTops) {
+        if (numTops < 0) {
+            throw new IllegalArgumentException("numTops must not be negative: " + numTops);
+        }
+        Accumulator accumulator = songs.parallelStream().collect(
+                () -> new Accumulator(numTops), Accumulator::add, Accumulator::addAll);
+        return new NationalCharts(numTops, accumulator);
+    }
+
+    /**
+     * @param country
+     * @return  the lead songs of the country, by decreasing streams count in that country
+     */
+    public List<Song> getCountryChart(Song.Country country) {
+        return countryCharts.get(country);
+    }
+
+    /**
+     * @param language
+     * @return  the lead songs of the language, by decreasing streams count total
+     */
+    public List<Song> getLanguageChart(Song.Language language) {
+        return languageCharts.get(language);
+    }
+
+    public int getNumTops() {
+        return numTops;
+    }
+
+    /**
+     * Collects the lead songs of all charts from a part of the songs
+     */
+    private static class Accumulator {
+        private final BoundedTops[] countryTops = new BoundedTops[Song.Country.values().length];
+        private final BoundedTops[] languageTops = new BoundedTops[Song.Language.values().length];
+
+        Accumulator(int numTops) {
+            for (Song.Country country : Song.Country.values()) {
+                Comparator<Song> ranking = IntKeyComparator.descending(song -> song.getStreamsCountOfCountry(country));
+                countryTops[country.ordinal()] = new BoundedTops(numTops, ranking);
+            }
+            for (int i = 0; i < languageTops.length; i++) {
+                languageTops[i] = new BoundedTops(numTops, Song.BY_HIGHEST_STREAMS_COUNT_TOTAL);
+            }
+        }
+
+        void add(Song song) {
+            for (BoundedTops tops : countryTops) {
+                tops.add(song);
+            }
+            languageTops[song.getLanguage().ordinal()].add(song);
+        }
+
+        void addAll(Accumulator other) {
+            for (int i = 0; i < countryTops.length; i++) {
+                countryTops[i].addAll(other.countryTops[i]);
+            }
+            for (int i = 0; i < languageTops.length; i++) {
+                languageTops[i].addAll(other.languageTops[i]);
+            }
+        }
+    }
+
+    /**
+     * Holds the lead collection of at most numTops songs according to a ranking
+     * in a heap with the weakest lead song at its root
+     */
+    private static class BoundedTops {
+        private final int numTops;
+        private final Comparator<Song> ranking;
+        private final PriorityQueue<Song> heap;
+
+        BoundedTops(int numTops, Comparator<Song> ranking) {
+            this.numTops = numTops;
+            this.ranking = ranking;
+            this.heap = new PriorityQueue<>(Integer.max(1, numTops), ranking.reversed());
+        }
+
+        void add(Song song) {
+            if (heap.size() < numTops) {
+                heap.add(song);
+            } else if (numTops > 0 && ranking.compare(song, heap.peek()) < 0) {
+                // the song beats the weakest lead song
+                heap.poll();
+                heap.add(song);
+            }
+        }
+
+        void addAll(BoundedTops other) {
+            for (Song song : other.heap) {
+                add(song);
+            }
+        }
+
+        List<Song> toSortedList() {
+            List<Song> songs = new ArrayList<>(heap);
+            songs.sort(ranking);
+            return songs;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package spotifycharts;
-import java.util.Map;
-import java.util.HashMap;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class Song {
 
@@ -23,6 +27,14 @@ public class Song {
         IT  // Italy
     }
 
+    // chart orderings by primitive keys, which the Sorter implementations sort without boxing or comparator calls
+    public static final IntKeyComparator<Song> BY_HIGHEST_STREAMS_COUNT_TOTAL =
+            IntKeyComparator.descending(Song::getStreamsCountTotal);
+    public static final IntKeyComparator<Song> BY_LOWEST_STREAMS_COUNT_TOTAL =
+            IntKeyComparator.ascending(Song::getStreamsCountTotal);
+    public static final IntKeyComparator<Song> FOR_DUTCH_NATIONAL_CHART =
+            BY_HIGHEST_STREAMS_COUNT_TOTAL.flaggedFirst(song -> song.getLanguage() == Language.NL);
+
     private final String artist;
     private final String title;
     private final Language language;
@@ -30,7 +42,22 @@ public class Song {
     // TODO add instance variable(s) to track the streams counts per country
     //  choose a data structure that you deem to be most appropriate for this application.
 
-    private Map<Country, Integer> streamsCountPerCountry;
+    private static final int NUMBER_OF_COUNTRIES = Country.values().length;
+
+    // atomic access to the streams counts, such that concurrent updates need no locks
+    private static final VarHandle STREAMS_COUNTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle STREAMS_COUNT_TOTAL;
+    static {
+        try {
+            STREAMS_COUNT_TOTAL = MethodHandles.lookup().findVarHandle(Song.class, "streamsCountTotal", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int[] streamsCountPerCountry; // the streams count of every country, indexed by Country.ordinal()
+    private volatile int streamsCountTotal;     // the running total of all streams counts, kept up-to-date with every change
+    private volatile List<Consumer<Song>> changeListeners = null;  // notified of every change of the streams counts, if any
 
 
 
@@ -39,17 +66,75 @@ public class Song {
         this.title = title;
         this.language = language;
         // TODO initialise streams counts per country as appropriate.
-        this.streamsCountPerCountry = new HashMap<>();
+        this.streamsCountPerCountry = new int[NUMBER_OF_COUNTRIES];
+        this.streamsCountTotal = 0;
     }
 
     /**
      * Sets the given streams count for the given country on this song
+     * Safe for concurrent use with addStreams and other setStreamsCountOfCountry calls
      * @param country
      * @param streamsCount
      */
     public void setStreamsCountOfCountry(Country country, int streamsCount) {
         // TODO register the streams count for the given country.
-        streamsCountPerCountry.put(country, streamsCount);
+        // replace the previous count of the country in the running total
+        int previousCount = (int) STREAMS_COUNTS.getAndSet(streamsCountPerCountry, country.ordinal(), streamsCount);
+        STREAMS_COUNT_TOTAL.getAndAdd(this, streamsCount - previousCount);
+        notifyChangeListeners();
+    }
+
+    /**
+     * Adds a number of streams (plays) to the streams count of the given country on this song
+     * Concurrent play events from many threads are applied without locks, by atomic additions
+     * to the count of the country and to the running total.
+     * The total therefore always equals the sum of all completed additions,
+     * although a reader may see the new count of a country shortly before the new total.
+     * @param country
+     * @param streams   the number of streams to be added
+     * @return  the new streams count of the country
+     */
+    public int addStreams(Country country, int streams) {
+        int previousCount = (int) STREAMS_COUNTS.getAndAdd(streamsCountPerCountry, country.ordinal(), streams);
+        STREAMS_COUNT_TOTAL.getAndAdd(this, streams);
+        notifyChangeListeners();
+        return previousCount + streams;
+    }
+
+    /**
+     * Registers a listener that is notified after every change of the streams counts of this song
+     * (e.g. a LiveChart that keeps its ranking up-to-date)
+     * Listeners are notified on the thread that changed the streams counts,
+     * so listeners of songs that are updated concurrently shall be thread safe themselves
+     * @param listener
+     */
+    public synchronized void addChangeListener(Consumer<Song> listener) {
+        // most songs have no listeners, so the list is only created on demand
+        // and replaced on every change, such that notifications can iterate it without a lock
+        List<Consumer<Song>> listeners = changeListeners == null ? new ArrayList<>(1) : new ArrayList<>(changeListeners);
+        listeners.add(listener);
+        changeListeners = listeners;
+    }
+
+    /**
+     * Deregisters a listener that was added by addChangeListener
+     * @param listener
+     */
+    public synchronized void removeChangeListener(Consumer<Song> listener) {
+        if (changeListeners != null && changeListeners.contains(listener)) {
+            List<Consumer<Song>> listeners = new ArrayList<>(changeListeners);
+            listeners.remove(listener);
+            changeListeners = listeners.isEmpty() ? null : listeners;
+        }
+    }
+
+    private void notifyChangeListeners() {
+        List<Consumer<Song>> listeners = changeListeners;
+        if (listeners != null) {
+            for (Consumer<Song> listener : listeners) {
+                listener.accept(this);
+            }
+        }
     }
 
     /**
@@ -59,20 +144,16 @@ public class Song {
      */
     public int getStreamsCountOfCountry(Country country) {
         // TODO retrieve the streams count for the given country.
-        return streamsCountPerCountry.getOrDefault(country, 0);
+        return (int) STREAMS_COUNTS.getVolatile(streamsCountPerCountry, country.ordinal());
     }
     /**
      * Calculates/retrieves the total of all streams counts across all countries from this song
+     * The total is maintained by setStreamsCountOfCountry and addStreams, such that comparisons need not recalculate it
      * @return
      */
     public int getStreamsCountTotal() {
         // TODO calculate/get the total number of streams across all countries
-        int totalStreamCount = 0;
-        for (Country country : Country.values()) {
-            totalStreamCount = totalStreamCount + this.getStreamsCountOfCountry(country);
-        }
-
-        return totalStreamCount;
+        return streamsCountTotal;
     }
 
 
@@ -106,6 +187,25 @@ public class Song {
         }
     }
 
+    /**
+     * provides a sort key that orders songs by increasing key value
+     * in the same way as compareByHighestStreamsCountTotal orders them
+     * @return  the sort key of this song
+     */
+    public long getHighestStreamsCountTotalKey() {
+        return -(long) this.getStreamsCountTotal();
+    }
+
+    /**
+     * provides a sort key that orders songs by increasing key value
+     * in the same way as compareForDutchNationalChart orders them:
+     * the Dutch flag in the high bits and the decreasing total number of streams in the low bits
+     * @return  the sort key of this song
+     */
+    public long getDutchNationalChartKey() {
+        return ((long) (1 - isDutch(this)) << 32) - this.getStreamsCountTotal();
+    }
+
     /**
      * Checks if song language is Dutch, if so returns 1 if not returns 0
      * @param song
@@ -1,5 +1,8 @@
 package spotifycharts;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -25,15 +28,19 @@ public class SongBuilder {
         // pick a semi-random title based on the provided title number.
         String titleText = titles[(baseTitleNr + 31 * titleNr) % titles.length];
 
+        // calculate a semi-random remix number to assure uniqueness of all titles
+        return createSong(titleText, titleNr / titles.length);
+    }
+
+    private static Song createSong(String titleText, int remixNr) {
         // extract Song attributes from the title text
         String[] titleParts = titleText.split("\\{");
         Song.Language language = titleParts.length > 1 ? Song.Language.valueOf(titleParts[1].substring(0,2).toUpperCase()) : Song.Language.EN;
-        titleParts = titleParts[0].split("-");
+        // split at the first " - " only, such that artists and titles may hold hyphens themselves
+        titleParts = titleParts[0].split(" - ", 2);
         String artist = titleParts[0].trim();
         String title = titleParts[1].trim();
 
-        // calculate a semi-random remix number to assure uniqueness of all titles
-        int remixNr = titleNr / titles.length;
         if (remixNr > 0) {
             title = title + " (remix-" + remixNr + ")";
         }
@@ -44,6 +51,87 @@ public class SongBuilder {
         return song;
     }
 
+    // the streams count total of the most popular song in a Zipf distributed data set
+    public static final int DEFAULT_MAX_STREAMS_COUNT = 100_000_000;
+    // the exponent s of the Zipf distribution: the song at popularity rank r gets 1/r^s of the streams of the top song
+    public static final double DEFAULT_ZIPF_EXPONENT = 1.0;
+    // country relative sizes
+    private static final int[] countryMultipliers = {3,1,3,1,3,2,2};
+
+    /**
+     * Provides the realistic relative streams count of songs in a language in a country:
+     * the relative size of the country, doubled for English songs and for songs in the language of the country
+     * shared by all test data generators
+     * @param language
+     * @param country
+     * @return  the multiplication factor of the streams count
+     */
+    static int streamsCountMultiplier(Song.Language language, Song.Country country) {
+        int languageMultiplier = (language == Song.Language.EN || language.toString().equals(country.toString())) ? 2 : 1;
+        return languageMultiplier * countryMultipliers[country.ordinal()];
+    }
+
+    /**
+     * Creates a data set of unique songs with heavy-tailed, Zipf distributed streams counts
+     * which is reproducible after reSeed.
+     * Every song gets a unique popularity rank 1..numSongs in random order; the song at rank r
+     * gets a streams count total of maxStreamsCount / r^exponent (at least 1),
+     * which is divided across all countries by their relative size, language and some randomness.
+     * @param numSongs          the number of songs to be created
+     * @param exponent          the exponent s of the Zipf distribution, typically about 1.0
+     * @param maxStreamsCount   the streams count total of the most popular song
+     * @return                  the songs, each with a unique artist and title combination
+     */
+    public static List<Song> createZipfDistributedSongs(int numSongs, double exponent, int maxStreamsCount) {
+        // a random permutation of popularity ranks
+        int[] ranks = new int[numSongs];
+        for (int i = 0; i < numSongs; i++) {
+            ranks[i] = i + 1;
+        }
+        for (int i = numSongs - 1; i > 0; i--) {
+            int j = randomizer.nextInt(i + 1);
+            int rank = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = rank;
+        }
+
+        List<Song> songs = new ArrayList<>(numSongs);
+        for (int i = 0; i < numSongs; i++) {
+            // consecutive song numbers cycle through all distinct titles, because 31 and their number are relatively prime
+            String titleText = distinctTitles[(baseTitleNr + 31 * i) % distinctTitles.length];
+            Song song = createSong(titleText, i / distinctTitles.length);
+            int streamsCountTotal = (int) Math.max(1, Math.round(maxStreamsCount / Math.pow(ranks[i], exponent)));
+            distributeStreamsCount(song, streamsCountTotal);
+            songs.add(song);
+        }
+        return songs;
+    }
+
+    /**
+     * Divides the streams count total of the song across all countries,
+     * such that the streams counts of all countries add up to exactly the total
+     * @param song
+     * @param streamsCountTotal
+     */
+    private static void distributeStreamsCount(Song song, int streamsCountTotal) {
+        Song.Country[] countries = Song.Country.values();
+        double[] weights = new double[countries.length];
+        double totalWeight = 0;
+        for (Song.Country country : countries) {
+            // apply some realistic, language dependent multiplication factors
+            double weight = streamsCountMultiplier(song.getLanguage(), country) * (0.5 + randomizer.nextDouble());
+            weights[country.ordinal()] = weight;
+            totalWeight += weight;
+        }
+        int remainder = streamsCountTotal;
+        for (int c = 1; c < countries.length; c++) {
+            int streamsCount = (int) (streamsCountTotal * (weights[c] / totalWeight));
+            song.setStreamsCountOfCountry(countries[c], streamsCount);
+            remainder -= streamsCount;
+        }
+        song.setStreamsCountOfCountry(countries[0], remainder);
+    }
+
     private static String[] titles = {
             "$hirak - Als Je Bij Me Blijft {nl}",
             "ACRAZE - Do It To It",
@@ -358,4 +446,7 @@ public class SongBuilder {
             "Zoë Tauran - Gebruik Me {nl}",
             "Zoë Tauran - Solo {nl}"
     };
+
+    // the titles without repetitions, such that every title and remix number combination is unique
+    private static final String[] distinctTitles = Arrays.stream(titles).distinct().toArray(String[]::new);
 }
@@ -1,6 +1,91 @@
 package spotifycharts;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
 public class SongSorter extends SorterImpl<Song> implements Sorter<Song> {
     // this class is for convenience and requires no further implementation if SorterImpl is fully provided
     // alternatively you may override specific methods for Song sorting here.
+
+    // scratch buffers of the radix sort, which are reused (and only grown) across sorts by this sorter
+    private Song[] scratchSongs = new Song[0];
+    private int[] keys = new int[0];
+    private int[] scratchKeys = new int[0];
+    private int[] order = new int[0];
+    private int[] scratchOrder = new int[0];
+
+    public SongSorter() {
+        super();
+    }
+
+    public SongSorter(boolean parallel) {
+        super(parallel);
+    }
+
+    /**
+     * Sorts in place the list of songs by decreasing streams count total
+     * with the same (stable) result as a merge sort by Song::compareByHighestStreamsCountTotal
+     * @param songs
+     * @return  the same list songs, but now sorted by decreasing streams count total
+     */
+    public List<Song> radixSortByHighestStreamsCountTotal(List<Song> songs) {
+        return radixSort(songs, Song::getStreamsCountTotal, true);
+    }
+
+    /**
+     * Sorts in place the list of songs by decreasing streams count of the given country
+     * equal streams counts retain their relative order from the original list
+     * @param songs
+     * @param country
+     * @return  the same list songs, but now sorted by decreasing streams count of the country
+     */
+    public List<Song> radixSortByHighestStreamsCountOfCountry(List<Song> songs, Song.Country country) {
+        return radixSort(songs, song -> song.getStreamsCountOfCountry(country), true);
+    }
+
+    /**
+     * Sorts in place the list of songs by the integer keys that are provided by the keyExtractor
+     * using a stable least-significant-digit radix sort, which runs in O(n * w)
+     * for w = 32 / 8 digit passes, without any comparison between songs.
+     * Every key is extracted only once. Passes of which all keys share the same digit are skipped,
+     * such that the bounded streams counts require only the passes of their significant digits.
+     * Not thread safe: the scratch buffers of this sorter are reused across calls.
+     * @param songs
+     * @param keyExtractor  provides the sort key of a song
+     * @param descending    whether to sort by decreasing instead of increasing key
+     * @return  the same list songs, but now sorted according to specifications.
+     */
+    public List<Song> radixSort(List<Song> songs, ToIntFunction<Song> keyExtractor, boolean descending) {
+        Song[] array = songs.toArray(new Song[0]);
+        int n = array.length;
+        ensureScratchCapacity(n);
+
+        // the complement of a key reverses the order of keys
+        for (int i = 0; i < n; i++) {
+            int key = keyExtractor.applyAsInt(array[i]);
+            keys[i] = descending ? ~key : key;
+            order[i] = i;
+        }
+        radixSortIndexes(keys, order, n, scratchKeys, scratchOrder);
+
+        for (int i = 0; i < n; i++) {
+            scratchSongs[i] = array[order[i]];
+        }
+        System.arraycopy(scratchSongs, 0, array, 0, n);
+        writeBack(songs, array);
+        // release the songs from the scratch buffer, such that they can be garbage collected
+        Arrays.fill(scratchSongs, 0, n, null);
+        return songs;
+    }
+
+    private void ensureScratchCapacity(int n) {
+        if (scratchSongs.length < n) {
+            scratchSongs = new Song[n];
+            keys = new int[n];
+            scratchKeys = new int[n];
+            order = new int[n];
+            scratchOrder = new int[n];
+        }
+    }
 }
@@ -0,0 +1,325 @@
+package spotifycharts;
+
+import java.util.*;
+
+/**
+ * A columnar table of songs for bulk ranking of large charts.
+ * Every song is identified by its (zero-based) index in the table.
+ * Artists and titles are stored once and referenced by id, languages by ordinal
+ * and all streams counts in one flat [songs x countries] matrix, with a separate column of totals.
+ * The ranking methods sort index permutations by these primitive columns only,
+ * without touching any Song object.
+ */
+public class SongTable {
+
+    private static final Song.Language[] LANGUAGES = Song.Language.values();
+    private static final Song.Country[] COUNTRIES = Song.Country.values();
+    private static final int NUMBER_OF_COUNTRIES = COUNTRIES.length;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // the distinct artist and title names, and their ids
+    private final List<String> artistNames = new ArrayList<>();
+    private final Map<String, Integer> artistIdsByName = new HashMap<>();
+    private final List<String> titleNames = new ArrayList<>();
+    private final Map<String, Integer> titleIdsByName = new HashMap<>();
+    // the index of every song by its combined (artist id, title id)
+    private final Map<Long, Integer> indexesByArtistAndTitle = new HashMap<>();
+
+    // the columns, indexed by song
+    private int[] artistIds;
+    private int[] titleIds;
+    private byte[] languages;
+    private int[] streamsCounts;        // streams count of song i in country c at [i * NUMBER_OF_COUNTRIES + c]
+    private int[] streamsCountTotals;
+    private int size = 0;
+
+    public SongTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public SongTable(int initialCapacity) {
+        initialCapacity = Integer.max(1, initialCapacity);
+        artistIds = new int[initialCapacity];
+        titleIds = new int[initialCapacity];
+        languages = new byte[initialCapacity];
+        streamsCounts = new int[initialCapacity * NUMBER_OF_COUNTRIES];
+        streamsCountTotals = new int[initialCapacity];
+    }
+
+    /**
+     * Creates a table with a copy of all songs and their current streams counts,
+     * in the same order as provided, such that index i of the table refers to the i-th song
+     * @param songs
+     * @return  the new table
+     */
+    public static SongTable of(Collection<Song> songs) {
+        SongTable songTable = new SongTable(songs.size());
+        for (Song song : songs) {
+            songTable.add(song);
+        }
+        return songTable;
+    }
+
+    /**
+     * Appends a song without any streams yet
+     * @param artist
+     * @param title
+     * @param language
+     * @return  the index of the new song
+     */
+    public int add(String artist, String title, Song.Language language) {
+        if (size == artistIds.length) {
+            grow();
+        }
+        int index = size++;
+        artistIds[index] = idOf(artist, artistNames, artistIdsByName);
+        titleIds[index] = idOf(title, titleNames, titleIdsByName);
+        languages[index] = (byte) language.ordinal();
+        indexesByArtistAndTitle.putIfAbsent(artistAndTitleKey(artistIds[index], titleIds[index]), index);
+        return index;
+    }
+
+    /**
+     * Finds the song of the given artist and title by its hash index
+     * @param artist
+     * @param title
+     * @return  the index of the (first) song with that artist and title, or -1 if there is none
+     */
+    public int indexOf(String artist, String title) {
+        Integer artistId = artistIdsByName.get(artist);
+        Integer titleId = titleIdsByName.get(title);
+        if (artistId == null || titleId == null) {
+            return -1;
+        }
+        return indexesByArtistAndTitle.getOrDefault(artistAndTitleKey(artistId, titleId), -1);
+    }
+
+    private static long artistAndTitleKey(int artistId, int titleId) {
+        return ((long) artistId << Integer.SIZE) | titleId;
+    }
+
+    /**
+     * Appends a copy of the song with its current streams counts
+     * @param song
+     * @return  the index of the new song
+     */
+    public int add(Song song) {
+        int index = add(song.getArtist(), song.getTitle(), song.getLanguage());
+        for (Song.Country country : COUNTRIES) {
+            setStreamsCountOfCountry(index, country, song.getStreamsCountOfCountry(country));
+        }
+        return index;
+    }
+
+    private static int idOf(String name, List<String> names, Map<String, Integer> idsByName) {
+        Integer id = idsByName.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            idsByName.put(name, id);
+        }
+        return id;
+    }
+
+    private void grow() {
+        int capacity = artistIds.length * 2;
+        artistIds = Arrays.copyOf(artistIds, capacity);
+        titleIds = Arrays.copyOf(titleIds, capacity);
+        languages = Arrays.copyOf(languages, capacity);
+        streamsCounts = Arrays.copyOf(streamsCounts, capacity * NUMBER_OF_COUNTRIES);
+        streamsCountTotals = Arrays.copyOf(streamsCountTotals, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Song index " + index + " out of bounds for table size " + size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setStreamsCountOfCountry(int index, Song.Country country, int streamsCount) {
+        checkIndex(index);
+        int cell = index * NUMBER_OF_COUNTRIES + country.ordinal();
+        streamsCountTotals[index] += streamsCount - streamsCounts[cell];
+        streamsCounts[cell] = streamsCount;
+    }
+
+    /**
+     * Adds the given number of streams to the streams count of the country of the song at index
+     * the table is left unchanged if the count of the country or the total would exceed the range of an int
+     * @param index
+     * @param country
+     * @param streamsCount  the number of streams to be added
+     * @throws ArithmeticException  if the count or the total overflows
+     */
+    public void addStreamsCountOfCountry(int index, Song.Country country, int streamsCount) {
+        checkIndex(index);
+        int cell = index * NUMBER_OF_COUNTRIES + country.ordinal();
+        int newCount = Math.addExact(streamsCounts[cell], streamsCount);
+        int newTotal = Math.addExact(streamsCountTotals[index], streamsCount);
+        streamsCounts[cell] = newCount;
+        streamsCountTotals[index] = newTotal;
+    }
+
+    public int getStreamsCountOfCountry(int index, Song.Country country) {
+        checkIndex(index);
+        return streamsCounts[index * NUMBER_OF_COUNTRIES + country.ordinal()];
+    }
+
+    public int getStreamsCountTotal(int index) {
+        checkIndex(index);
+        return streamsCountTotals[index];
+    }
+
+    public String getArtist(int index) {
+        checkIndex(index);
+        return artistNames.get(artistIds[index]);
+    }
+
+    public String getTitle(int index) {
+        checkIndex(index);
+        return titleNames.get(titleIds[index]);
+    }
+
+    public Song.Language getLanguage(int index) {
+        checkIndex(index);
+        return LANGUAGES[languages[index]];
+    }
+
+    /**
+     * Creates a new Song object with the data of the song at the given index in the table
+     * @param index
+     * @return
+     */
+    public Song getSong(int index) {
+        Song song = new Song(getArtist(index), getTitle(index), getLanguage(index));
+        for (Song.Country country : COUNTRIES) {
+            song.setStreamsCountOfCountry(country, getStreamsCountOfCountry(index, country));
+        }
+        return song;
+    }
+
+    /**
+     * Creates new Song objects of the first numSongs of a ranking
+     * @param ranking   a permutation of song indices, as provided by any of the rank methods
+     * @param numSongs  the number of songs to be retrieved
+     * @return
+     */
+    public List<Song> getSongs(int[] ranking, int numSongs) {
+        numSongs = Integer.min(numSongs, ranking.length);
+        List<Song> songs = new ArrayList<>(numSongs);
+        for (int i = 0; i < numSongs; i++) {
+            songs.add(getSong(ranking[i]));
+        }
+        return songs;
+    }
+
+    /**
+     * Ranks all songs by decreasing streams count total, like Song::compareByHighestStreamsCountTotal
+     * songs with equal totals retain their order of the table
+     * @return  the indices of all songs in order of the ranking
+     */
+    public int[] rankByHighestStreamsCountTotal() {
+        return rankByKeys(Arrays.copyOf(streamsCountTotals, size), true);
+    }
+
+    /**
+     * Ranks all songs by increasing streams count total
+     * songs with equal totals retain their order of the table
+     * @return  the indices of all songs in order of the ranking
+     */
+    public int[] rankByLowestStreamsCountTotal() {
+        return rankByKeys(Arrays.copyOf(streamsCountTotals, size), false);
+    }
+
+    /**
+     * Ranks all songs by decreasing streams count of the given country
+     * songs with equal streams counts retain their order of the table
+     * @param country
+     * @return  the indices of all songs in order of the ranking
+     */
+    public int[] rankByHighestStreamsCountOfCountry(Song.Country country) {
+        int[] keys = new int[size];
+        for (int i = 0, cell = country.ordinal(); i < size; i++, cell += NUMBER_OF_COUNTRIES) {
+            keys[i] = streamsCounts[cell];
+        }
+        return rankByKeys(keys, true);
+    }
+
+    /**
+     * Ranks the songs of the given language by decreasing streams count total, like the national chart of a language
+     * songs with equal totals retain their order of the table
+     * @param language
+     * @return  the indices of the songs of the language only, in order of the ranking
+     */
+    public int[] rankByHighestStreamsCountTotalOfLanguage(Song.Language language) {
+        byte ordinal = (byte) language.ordinal();
+        int numSongs = 0;
+        for (int i = 0; i < size; i++) {
+            if (languages[i] == ordinal) {
+                numSongs++;
+            }
+        }
+        int[] indices = new int[numSongs];
+        int[] keys = new int[numSongs];
+        for (int i = 0, j = 0; i < size; i++) {
+            if (languages[i] == ordinal) {
+                indices[j] = i;
+                keys[j++] = ~streamsCountTotals[i];
+            }
+        }
+        SorterImpl.radixSortIndexes(keys, indices);
+        return indices;
+    }
+
+    /**
+     * Ranks all Dutch songs upfront and then by decreasing streams count total, like Song::compareForDutchNationalChart
+     * songs of equal rank retain their order of the table
+     * @return  the indices of all songs in order of the ranking
+     */
+    public int[] rankForDutchNationalChart() {
+        int[] ranking = rankByHighestStreamsCountTotal();
+
+        // stable partition of the ranking, moving all Dutch songs upfront
+        byte dutch = (byte) Song.Language.NL.ordinal();
+        int[] dutchNationalRanking = new int[size];
+        int numDutch = 0;
+        for (int index : ranking) {
+            if (languages[index] == dutch) {
+                numDutch++;
+            }
+        }
+        int dutchPosition = 0;
+        int otherPosition = numDutch;
+        for (int index : ranking) {
+            if (languages[index] == dutch) {
+                dutchNationalRanking[dutchPosition++] = index;
+            } else {
+                dutchNationalRanking[otherPosition++] = index;
+            }
+        }
+        return dutchNationalRanking;
+    }
+
+    /**
+     * Sorts the indices 0..keys.length-1 by their keys with a stable radix sort
+     * the keys array is used as working space and is overwritten
+     * @param keys          the sort key of every song index
+     * @param descending    whether to rank by decreasing instead of increasing key
+     * @return  the permutation of the indices in order of their keys
+     */
+    private static int[] rankByKeys(int[] keys, boolean descending) {
+        int[] ranking = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ranking[i] = i;
+            if (descending) {
+                keys[i] = ~keys[i];
+            }
+        }
+        SorterImpl.radixSortIndexes(keys, ranking);
+        return ranking;
+    }
+}
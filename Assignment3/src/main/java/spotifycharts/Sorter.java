@@ -1,7 +1,9 @@
 package spotifycharts;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 public interface Sorter<E> {
     /**
@@ -24,6 +26,20 @@ public interface Sorter<E> {
      */
     List<E> quickSort(List<E> items, Comparator<E> comparator);
 
+    /**
+     * Sorts in place the list of items of type E
+     * by increasing value of the sort keys that are provided by the keyExtractor
+     * using a quicksort algorithm
+     * The key of every item shall be calculated only once, and not for every comparison
+     * @param items
+     * @param keyExtractor  calculates the sort key of an item
+     * @return  the same list items, but now sorted according to specifications.
+     */
+    default List<E> quickSort(List<E> items, ToLongFunction<E> keyExtractor) {
+        // Shall be overriden in the implementation to avoid recalculation of keys in every comparison.
+        return quickSort(items, Comparator.comparingLong(keyExtractor));
+    }
+
     /**
      * Partially sorts in place the list of items of type E
      * according to the relative ordening as specified by the given comparator
@@ -38,4 +54,39 @@ public interface Sorter<E> {
         // Shall be overriden in the implementation to gain better efficiency of the heapsort.
         return quickSort(items, comparator);
     }
+
+    /**
+     * Sorts in place the list of items of type E
+     * according to the relative ordening as specified by the given comparator
+     * using a stable merge sort algorithm:
+     * items that compare equal retain their relative order from the original list
+     * @param items
+     * @param comparator
+     * @return  the same list items, but now sorted according to specifications.
+     */
+    default List<E> mergeSort(List<E> items, Comparator<E> comparator) {
+        // Shall be overriden in the implementation to gain better efficiency of the merge sort.
+        items.sort(comparator);
+        return items;
+    }
+
+    /**
+     * Restores in place the ordening of a sorted list of items of type E
+     * after the sort keys of some of its items have changed,
+     * such that a refresh of a chart need not sort all items again
+     * @param sortedItems   the items, sorted according to the comparator before the changes
+     * @param changedItems  the items of which the sort keys have changed;
+     *                      changed items that are not in the list yet are added
+     * @param comparator
+     * @return  the same list sortedItems, but now sorted according to specifications.
+     */
+    default List<E> reRank(List<E> sortedItems, Collection<E> changedItems, Comparator<E> comparator) {
+        // Shall be overriden in the implementation to gain better efficiency than a full sort.
+        for (E item : changedItems) {
+            if (!sortedItems.contains(item)) {
+                sortedItems.add(item);
+            }
+        }
+        return quickSort(sortedItems, comparator);
+    }
 }
@@ -1,42 +1,87 @@
 package spotifycharts;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToLongFunction;
 
 public class SorterImpl<E> implements Sorter<E> {
 
+    // sections of at most this size are sorted by insertion sort within quickSort
+    private static final int INSERTION_SORT_CUTOFF = 16;
+    // sections of at least this size are sorted by parallel tasks
+    protected static final int PARALLEL_THRESHOLD = 8192;
+    // sections of at least this size take the pivot from a median of three medians (ninther) within quickSort
+    private static final int NINTHER_THRESHOLD = 128;
+    // topsHeapSort selects the lead collection by introselect instead of a heap
+    // when numTops exceeds this fraction (1/SELECT_RATIO) of all items
+    private static final int SELECT_RATIO = 64;
+    // the digits of the radix sort of primitive keys
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+    // the low bits of a stable sort key hold the position of its item
+    private static final int POSITION_BITS = 31;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+
     long startTime;
     long endTime;
 
+    protected final boolean parallel;   // whether large sections may be sorted on multiple cores
+
+    public SorterImpl() {
+        this(true);
+    }
+
+    public SorterImpl(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     /**
      * Sorts all items by selection or insertion sort using the provided comparator
      * for deciding relative ordening of two items
-     * Items are sorted 'in place' without use of an auxiliary list or array
+     * Items are sorted in a working array, which is written back into the list
      * @param items
      * @param comparator
      * @return  the items sorted in place
      */
     public List<E> selInsBubSort(List<E> items, Comparator<E> comparator) {
         // TODO implement selection sort or insertion sort or bubble sort
+        if (items == null || items.size() <= 1) {
+            return items;
+        }
+        E[] array = toArray(items);
 
-        for (int i = 0; i < items.size() - 1; i++) {
+        for (int i = 0; i < array.length - 1; i++) {
             int minIndex = i;
-            for (int j = i + 1; j < items.size(); j++) {
-                if (comparator.compare(items.get(j), items.get(minIndex)) < 0) {
+            for (int j = i + 1; j < array.length; j++) {
+                if (comparator.compare(array[j], array[minIndex]) < 0) {
                     minIndex = j;
                 }
             }
             if (minIndex != i) {
-                swap(items, i, minIndex);
+                swap(array, i, minIndex);
             }
-        }        return items;
+        }
+
+        return writeBack(items, array);
     }
 
     /**
      * Sorts all items by quick sort using the provided comparator
      * for deciding relative ordening of two items
-     * Items are sorted 'in place' without use of an auxiliary list or array
+     * Items are sorted in a working array, which is written back into the list
+     * In parallel mode, large partitions are sorted by fork-join tasks on multiple cores;
+     * the comparator shall then be safe to use from multiple threads.
+     * An IntKeyComparator is recognised, and its sort keys are then sorted as primitives instead.
      * @param items
      * @param comparator
      * @return  the items sorted in place
@@ -47,32 +92,384 @@ public class SorterImpl<E> implements Sorter<E> {
         if (items == null || items.size() <= 1 ) {
             return items;
         }
+        if (comparator instanceof IntKeyComparator<E> intKeyComparator) {
+            // fast path: sort by precalculated primitive keys, without any comparator call
+            return quickSort(items, intKeyComparator::sortKey);
+        }
+        E[] array = toArray(items);
 
-        recursiveQuickSort(items, 0, items.size() - 1, comparator);
-        return items;
+        quickSort(array, 0, array.length - 1, comparator);
+
+        return writeBack(items, array);
+    }
+
+    /**
+     * Sorts array[startIndex..lastIndex] by quick sort, in parallel if that is enabled and worthwhile
+     */
+    protected void quickSort(E[] array, int startIndex, int lastIndex, Comparator<E> comparator) {
+        // tasks can share the array safely, because they only access disjoint sections
+        if (this.parallel && lastIndex - startIndex >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new QuickSortTask(array, startIndex, lastIndex, comparator));
+        } else {
+            recursiveQuickSort(array, startIndex, lastIndex, comparator);
+        }
+    }
+
+    private void recursiveQuickSort(E[] array, int startIndex, int lastIndex, Comparator<E> comparator) {
+        // recurse into the smaller partition only and continue with the larger partition in this loop,
+        // such that the depth of recursion remains within O(log n)
+        while (lastIndex - startIndex >= INSERTION_SORT_CUTOFF) {
+            int[] middle = partition(array, startIndex, lastIndex, comparator);
+            if (middle[0] - startIndex < lastIndex - middle[1]) {
+                recursiveQuickSort(array, startIndex, middle[0] - 1, comparator);
+                startIndex = middle[1] + 1;
+            } else {
+                recursiveQuickSort(array, middle[1] + 1, lastIndex, comparator);
+                lastIndex = middle[0] - 1;
+            }
+        }
+
+        // small sections are sorted faster without the overhead of partitioning
+        insertionSort(array, startIndex, lastIndex, comparator);
+    }
+
+    /**
+     * A fork-join task that sorts array[startIndex..lastIndex] by quick sort,
+     * forking both partitions into parallel tasks for as long as they are large enough
+     */
+    private class QuickSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final E[] array;
+        private final int startIndex;
+        private final int lastIndex;
+        private final Comparator<E> comparator;
+
+        QuickSortTask(E[] array, int startIndex, int lastIndex, Comparator<E> comparator) {
+            this.array = array;
+            this.startIndex = startIndex;
+            this.lastIndex = lastIndex;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastIndex - startIndex < PARALLEL_THRESHOLD) {
+                // small partitions are not worth the overhead of another task
+                recursiveQuickSort(array, startIndex, lastIndex, comparator);
+            } else {
+                int[] middle = partition(array, startIndex, lastIndex, comparator);
+                invokeAll(new QuickSortTask(array, startIndex, middle[0] - 1, comparator),
+                        new QuickSortTask(array, middle[1] + 1, lastIndex, comparator));
+            }
+        }
     }
 
-    private void recursiveQuickSort(List<E> items, int startIndex, int lastIndex, Comparator<E> comparator) {
-        if (startIndex < lastIndex) {
-            int middleIndex = partition(items, startIndex, lastIndex, comparator);
-            recursiveQuickSort(items, startIndex, middleIndex - 1, comparator);
-            recursiveQuickSort(items, middleIndex + 1, lastIndex, comparator);
+    /**
+     * Sorts array[startIndex..lastIndex] in place by insertion sort
+     */
+    protected void insertionSort(E[] array, int startIndex, int lastIndex, Comparator<E> comparator) {
+        for (int i = startIndex + 1; i <= lastIndex; i++) {
+            E item = array[i];
+            int j = i - 1;
+            // shift all larger items of the sorted front one position up
+            while (j >= startIndex && comparator.compare(array[j], item) > 0) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = item;
         }
     }
 
-    private int partition(List<E> items, int low, int high, Comparator<E> comparator) {
-        E middle = items.get(high);
-        int i = low - 1;
+    /**
+     * Partitions array[low..high] into three sections around a pivot (Dutch national flag partitioning):
+     *      array[low..lt-1] < pivot, array[lt..gt] == pivot, array[gt+1..high] > pivot
+     * such that items with keys equal to the pivot need not be sorted any further.
+     * @return  the boundaries {lt, gt} of the middle section
+     */
+    private int[] partition(E[] array, int low, int high, Comparator<E> comparator) {
+        E pivot = array[selectPivotIndex(array, low, high, comparator)];
+        int lt = low;
+        int i = low;
+        int gt = high;
 
-        for (int j = low; j < high; j++) {
-            if (comparator.compare(items.get(j), middle) <= 0 ) {
+        // loop-invariant: array[lt..i-1] == pivot and array[i..gt] are still to be partitioned
+        while (i <= gt) {
+            int comparison = comparator.compare(array[i], pivot);
+            if (comparison < 0) {
+                swap(array, lt++, i++);
+            } else if (comparison > 0) {
+                swap(array, i, gt--);
+            } else {
                 i++;
-                swap(items, i, j);
             }
         }
 
-        swap(items, i + 1, high);
-        return i + 1;
+        return new int[]{lt, gt};
+    }
+
+    /**
+     * Selects a pivot from array[low..high] by the median of three samples,
+     * or by the median of three medians of three samples (ninther) for larger sections.
+     * This avoids the worst case of a pivot at either end on sorted or reversed input.
+     * @return  the position of the selected pivot
+     */
+    private int selectPivotIndex(E[] array, int low, int high, Comparator<E> comparator) {
+        int middle = low + (high - low) / 2;
+        if (high - low < NINTHER_THRESHOLD) {
+            return medianOfThree(array, low, middle, high, comparator);
+        }
+
+        int eighth = (high - low) / 8;
+        return medianOfThree(array,
+                medianOfThree(array, low, low + eighth, low + 2 * eighth, comparator),
+                medianOfThree(array, middle - eighth, middle, middle + eighth, comparator),
+                medianOfThree(array, high - 2 * eighth, high - eighth, high, comparator),
+                comparator);
+    }
+
+    private int medianOfThree(E[] array, int a, int b, int c, Comparator<E> comparator) {
+        if (comparator.compare(array[a], array[b]) < 0) {
+            if (comparator.compare(array[b], array[c]) < 0) return b;
+            return comparator.compare(array[a], array[c]) < 0 ? c : a;
+        } else {
+            if (comparator.compare(array[a], array[c]) < 0) return a;
+            return comparator.compare(array[b], array[c]) < 0 ? c : b;
+        }
+    }
+
+    /**
+     * Sorts all items by quick sort on sort keys that are provided by the keyExtractor
+     * The keys are calculated once per item and sorted as a primitive long[],
+     * along with the permutation of item positions that is applied to the list afterwards.
+     * That way, any expensive derivation of keys happens only n times instead of n log n times.
+     * @param items
+     * @param keyExtractor  calculates the sort key of an item
+     * @return  the items sorted in place
+     */
+    @Override
+    public List<E> quickSort(List<E> items, ToLongFunction<E> keyExtractor) {
+        if (items == null || items.size() <= 1 ) {
+            return items;
+        }
+        E[] array = toArray(items);
+
+        long[] keys = new long[array.length];
+        int[] positions = new int[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = keyExtractor.applyAsLong(array[i]);
+            positions[i] = i;
+        }
+
+        recursiveKeysQuickSort(keys, positions, 0, array.length - 1);
+
+        // apply the sorted permutation of positions to the items
+        E[] sortedArray = Arrays.copyOf(array, array.length);
+        for (int i = 0; i < array.length; i++) {
+            sortedArray[i] = array[positions[i]];
+        }
+
+        return writeBack(items, sortedArray);
+    }
+
+    /**
+     * Restores the ordening of a sorted list after the sort keys of the changed items have changed:
+     * the changed items are taken out of the list, sorted separately and merged back into the list,
+     * finding the position of every changed item by a binary search in the unchanged remainder.
+     * For m changed items in a list of n items this takes O(m log n) comparisons;
+     * the unchanged items are moved in blocks in O(n).
+     * @param sortedItems   the items, sorted according to the comparator before the changes
+     * @param changedItems  the items of which the sort keys have changed;
+     *                      changed items that are not in the list yet are added
+     * @param comparator
+     * @return  the items sorted in place
+     */
+    public List<E> reRank(List<E> sortedItems, Collection<E> changedItems, Comparator<E> comparator) {
+        if (changedItems.isEmpty()) {
+            return sortedItems;
+        }
+        Set<E> changedSet = Collections.newSetFromMap(new IdentityHashMap<>(2 * changedItems.size()));
+        changedSet.addAll(changedItems);
+
+        // compact the unchanged items, which are still in sorted order
+        E[] array = toArray(sortedItems);
+        int numUnchanged = 0;
+        for (E item : array) {
+            if (!changedSet.contains(item)) {
+                array[numUnchanged++] = item;
+            }
+        }
+
+        E[] changedArray = Arrays.copyOf(array, changedSet.size());
+        int c = 0;
+        for (E item : changedSet) {
+            changedArray[c++] = item;
+        }
+        quickSort(changedArray, 0, changedArray.length - 1, comparator);
+
+        // merge backwards, such that the unchanged items can be shifted within the array
+        E[] merged = array.length == numUnchanged + changedArray.length
+                ? array : Arrays.copyOf(array, numUnchanged + changedArray.length);
+        int target = merged.length;
+        int unchangedEnd = numUnchanged;
+        for (int i = changedArray.length - 1; i >= 0; i--) {
+            E changed = changedArray[i];
+            // all unchanged items from the insertion point onwards succeed the changed item
+            int insertionIndex = upperBound(merged, 0, unchangedEnd, changed, comparator);
+            int blockLength = unchangedEnd - insertionIndex;
+            target -= blockLength;
+            System.arraycopy(merged, insertionIndex, merged, target, blockLength);
+            merged[--target] = changed;
+            unchangedEnd = insertionIndex;
+        }
+
+        if (merged.length != sortedItems.size()) {
+            // new items have been added
+            sortedItems.clear();
+            sortedItems.addAll(Arrays.asList(merged));
+            return sortedItems;
+        }
+        return writeBack(sortedItems, merged);
+    }
+
+    /**
+     * Finds the first position in the sorted array[fromIndex..toIndex-1] of an item that succeeds the given item
+     * @return  the insertion index of item after all equal items, in the range fromIndex..toIndex
+     */
+    private int upperBound(E[] array, int fromIndex, int toIndex, E item, Comparator<E> comparator) {
+        while (fromIndex < toIndex) {
+            int middle = (fromIndex + toIndex) >>> 1;
+            if (comparator.compare(array[middle], item) <= 0) {
+                fromIndex = middle + 1;
+            } else {
+                toIndex = middle;
+            }
+        }
+        return fromIndex;
+    }
+
+    /**
+     * Sorts order[0..n-1] by increasing keys[0..n-1] with a stable least-significant-digit radix sort,
+     * in which keys[i] is the sort key of order[i]; both arrays are permuted together.
+     * Passes of which all keys share the same digit are skipped,
+     * such that bounded keys (e.g. streams counts) only require the passes of their significant digits.
+     * (shared by the SongSorter and the SongTable, which sort by primitive keys without comparisons)
+     * @param keys          the keys to sort by, decreasing order can be obtained by the complement ~key
+     * @param order         the items (e.g. indices) to be sorted along with the keys
+     * @param n             the number of keys to be sorted
+     * @param scratchKeys   working space of at least n elements
+     * @param scratchOrder  working space of at least n elements
+     */
+    static void radixSortIndexes(int[] keys, int[] order, int n, int[] scratchKeys, int[] scratchOrder) {
+        // map the signed keys onto unsigned keys in the same order
+        for (int i = 0; i < n; i++) {
+            keys[i] ^= Integer.MIN_VALUE;
+        }
+
+        int[] sourceKeys = keys, sourceOrder = order;
+        int[] targetKeys = scratchKeys, targetOrder = scratchOrder;
+        int[] digitCounts = new int[RADIX];
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(digitCounts, 0);
+            for (int i = 0; i < n; i++) {
+                digitCounts[(sourceKeys[i] >>> shift) & RADIX_MASK]++;
+            }
+            if (n == 0 || digitCounts[(sourceKeys[0] >>> shift) & RADIX_MASK] == n) {
+                // all keys have the same digit, this pass would not change the order
+                continue;
+            }
+            // convert the digit counts into the start positions of every digit in the target
+            int position = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = digitCounts[digit];
+                digitCounts[digit] = position;
+                position += count;
+            }
+            // distribute, retaining the relative order of equal digits
+            for (int i = 0; i < n; i++) {
+                int targetIndex = digitCounts[(sourceKeys[i] >>> shift) & RADIX_MASK]++;
+                targetKeys[targetIndex] = sourceKeys[i];
+                targetOrder[targetIndex] = sourceOrder[i];
+            }
+            int[] swap = sourceKeys; sourceKeys = targetKeys; targetKeys = swap;
+            swap = sourceOrder; sourceOrder = targetOrder; targetOrder = swap;
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, n);
+            System.arraycopy(sourceOrder, 0, order, 0, n);
+        }
+
+        for (int i = 0; i < n; i++) {
+            keys[i] ^= Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Sorts order by increasing keys with a stable radix sort, see above
+     * @param keys
+     * @param order
+     */
+    static void radixSortIndexes(int[] keys, int[] order) {
+        radixSortIndexes(keys, order, keys.length, new int[keys.length], new int[keys.length]);
+    }
+
+    /**
+     * Sorts keys[startIndex..lastIndex] by quick sort with three-way partitioning,
+     * applying every move of a key to the positions array as well
+     * (also used by the ExternalRecordSorter to sort the keys of records that are not held in objects)
+     */
+    static void recursiveKeysQuickSort(long[] keys, int[] positions, int startIndex, int lastIndex) {
+        while (lastIndex - startIndex >= INSERTION_SORT_CUTOFF) {
+            // median of three pivot
+            int middleIndex = startIndex + (lastIndex - startIndex) / 2;
+            long a = keys[startIndex], b = keys[middleIndex], c = keys[lastIndex];
+            long pivot = a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+
+            // three-way partitioning: keys[startIndex..lt-1] < pivot, keys[lt..gt] == pivot, keys[gt+1..lastIndex] > pivot
+            int lt = startIndex;
+            int i = startIndex;
+            int gt = lastIndex;
+            while (i <= gt) {
+                if (keys[i] < pivot) {
+                    swap(keys, positions, lt++, i++);
+                } else if (keys[i] > pivot) {
+                    swap(keys, positions, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+
+            // recurse into the smaller partition only
+            if (lt - startIndex < lastIndex - gt) {
+                recursiveKeysQuickSort(keys, positions, startIndex, lt - 1);
+                startIndex = gt + 1;
+            } else {
+                recursiveKeysQuickSort(keys, positions, gt + 1, lastIndex);
+                lastIndex = lt - 1;
+            }
+        }
+
+        // insertion sort of the small remainder
+        for (int i = startIndex + 1; i <= lastIndex; i++) {
+            long key = keys[i];
+            int position = positions[i];
+            int j = i - 1;
+            while (j >= startIndex && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                positions[j + 1] = positions[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            positions[j + 1] = position;
+        }
+    }
+
+    private static void swap(long[] keys, int[] positions, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int position = positions[i];
+        positions[i] = positions[j];
+        positions[j] = position;
     }
 
     private void swap(List<E> items, int i, int j) {
@@ -81,12 +478,115 @@ public class SorterImpl<E> implements Sorter<E> {
         items.set(j, temp);
     }
 
+    protected static <T> void swap(T[] array, int i, int j) {
+        T temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * Copies all items into a working array, such that the sorting algorithms can run tight loops
+     * without the bounds checks and interface dispatch of List.get and List.set
+     * (and without the linear time positional access of a LinkedList)
+     * @param items
+     * @return  a new array with all items in list order
+     */
+    @SuppressWarnings("unchecked")
+    protected E[] toArray(List<E> items) {
+        // the array is an Object[], which is never exposed as E[] outside this class hierarchy
+        return (E[]) items.toArray();
+    }
+
+    /**
+     * Writes the (sorted) items of the working array back into the list
+     * Random access lists are updated by position, any other list via a list iterator,
+     * such that a sequential access list is updated in linear time as well.
+     * @param items
+     * @param array     holds the items in their new order
+     * @return  the updated items
+     */
+    protected List<E> writeBack(List<E> items, E[] array) {
+        if (items instanceof RandomAccess) {
+            for (int i = 0; i < array.length; i++) {
+                items.set(i, array[i]);
+            }
+        } else {
+            ListIterator<E> iterator = items.listIterator();
+            for (E item : array) {
+                iterator.next();
+                iterator.set(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Sorts all items by a stable sort, like Sorter.mergeSort
+     * An IntKeyComparator is recognised, and its sort keys are then sorted as primitives instead.
+     * @param items
+     * @param comparator
+     * @return  the items sorted in place
+     */
+    @Override
+    public List<E> mergeSort(List<E> items, Comparator<E> comparator) {
+        if (items == null || items.size() <= 1) {
+            return items;
+        }
+        if (comparator instanceof IntKeyComparator<E> intKeyComparator) {
+            E[] array = toArray(items);
+            sortByIntKeys(array, intKeyComparator);
+            return writeBack(items, array);
+        }
+        return Sorter.super.mergeSort(items, comparator);
+    }
+
+    /**
+     * Sorts the array stably by the sort keys of an IntKeyComparator:
+     * every key is calculated once and the combined stable keys are sorted as primitives,
+     * without any call of the comparator
+     */
+    protected void sortByIntKeys(E[] array, IntKeyComparator<E> comparator) {
+        long[] keys = stableSortKeys(array, comparator);
+        if (this.parallel && keys.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        applyKeyOrder(array, keys);
+    }
+
+    /**
+     * Combines the sort key of every item (at most 33 bits) with the position of the item (31 bits)
+     * into a single long, offset such that the combined keys order by sort key first and by position thereafter.
+     * All combined keys are distinct, so any sort of them yields a stable order of the items.
+     */
+    private static <T> long[] stableSortKeys(T[] array, IntKeyComparator<T> comparator) {
+        long[] keys = new long[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = ((comparator.sortKey(array[i]) << POSITION_BITS) | i) ^ Long.MIN_VALUE;
+        }
+        return keys;
+    }
+
+    /**
+     * Reorders the array into the order of its combined stable keys
+     */
+    private static <T> void applyKeyOrder(T[] array, long[] keys) {
+        T[] items = Arrays.copyOf(array, array.length);
+        for (int i = 0; i < keys.length; i++) {
+            array[i] = items[(int) (keys[i] & POSITION_MASK)];
+        }
+    }
+
     /**
      * Identifies the lead collection of numTops items according to the ordening criteria of comparator
-     * and organizes and sorts this lead collection into the first numTops positions of the list
-     * with use of (zero-based) heapSwim and heapSink operations.
+     * and organizes and sorts this lead collection into the first numTops positions of the list.
+     * A small lead collection is found with use of (zero-based) heapSwim and heapSink operations in O(n log numTops),
+     * a large lead collection (relative to the number of items) is found by introselect in O(n)
+     * and sorted thereafter in O(numTops log numTops).
      * The remaining items are kept in the tail of the list, in arbitrary order.
-     * Items are sorted 'in place' without use of an auxiliary list or array or other positions in items
+     * An IntKeyComparator is recognised, and the lead collection is then selected by its primitive sort keys.
+     * Items are sorted in a working array, which is written back into the list
      * @param numTops       the size of the lead collection of items to be found and sorted
      * @param items
      * @param comparator
@@ -94,7 +594,77 @@ public class SorterImpl<E> implements Sorter<E> {
      *                      all other items >= any item in the lead collection
      */
     public List<E> topsHeapSort(int numTops, List<E> items, Comparator<E> comparator) {
+        if (items == null || items.size() <= 1 || numTops <= 0) {
+            return items;
+        }
+        E[] array = toArray(items);
+        numTops = Integer.min(numTops, array.length);
+
+        if (comparator instanceof IntKeyComparator<E> intKeyComparator) {
+            topsByIntKeys(array, numTops, intKeyComparator);
+        } else if ((long) numTops * SELECT_RATIO >= array.length) {
+            topsSelectSort(array, numTops, comparator);
+        } else {
+            topsHeapSort(array, numTops, comparator);
+        }
+
+        return writeBack(items, array);
+    }
+
+    /**
+     * Organizes and sorts the lead collection of numTops items into array[0..numTops-1]
+     * by the primitive stable sort keys of an IntKeyComparator:
+     * a small lead collection is selected by a max-heap of keys, a large one by sorting all keys
+     */
+    private void topsByIntKeys(E[] array, int numTops, IntKeyComparator<E> comparator) {
+        long[] keys = stableSortKeys(array, comparator);
+        if ((long) numTops * SELECT_RATIO >= keys.length) {
+            Arrays.sort(keys);
+        } else {
+            // keys[0..numTops-1] holds a max-heap of the smallest keys so far
+            for (int i = numTops / 2 - 1; i >= 0; i--) {
+                sinkKey(keys, i, numTops);
+            }
+            for (int i = numTops; i < keys.length; i++) {
+                if (keys[i] < keys[0]) {
+                    long key = keys[0];
+                    keys[0] = keys[i];
+                    keys[i] = key;
+                    sinkKey(keys, 0, numTops);
+                }
+            }
+            Arrays.sort(keys, 0, numTops);
+        }
+        applyKeyOrder(array, keys);
+    }
+
+    /**
+     * Restores the condition of the (zero-based) max-heap keys[0..heapSize-1] below parentIndex
+     */
+    private static void sinkKey(long[] keys, int parentIndex, int heapSize) {
+        long parent = keys[parentIndex];
+        while (true) {
+            int childIndex = 2 * parentIndex + 1;
+            if (childIndex >= heapSize) {
+                break;
+            }
+            if (childIndex + 1 < heapSize && keys[childIndex + 1] > keys[childIndex]) {
+                childIndex++;
+            }
+            if (keys[childIndex] <= parent) {
+                break;
+            }
+            keys[parentIndex] = keys[childIndex];
+            parentIndex = childIndex;
+        }
+        keys[parentIndex] = parent;
+    }
 
+    /**
+     * Organizes and sorts the lead collection of numTops items into array[0..numTops-1]
+     * with use of heapSwim and heapSink operations on a heap of the lead collection
+     */
+    private void topsHeapSort(E[] array, int numTops, Comparator<E> comparator) {
         // the lead collection of numTops items will be organised into a (zero-based) heap structure
         // in the first numTops list positions using the reverseComparator for the heap condition.
         // that way the root of the heap will contain the worst item of the lead collection
@@ -104,23 +674,23 @@ public class SorterImpl<E> implements Sorter<E> {
         // initialise the lead collection with the first numTops items in the list
         for (int heapSize = 2; heapSize <= numTops; heapSize++) {
             // repair the heap condition of items[0..heapSize-2] to include new item items[heapSize-1]
-            heapSwim(items, heapSize, reverseComparator);
+            heapSwim(array, heapSize, reverseComparator);
         }
 
         // insert remaining items into the lead collection as appropriate
-        for (int i = numTops; i < items.size(); i++) {
+        for (int i = numTops; i < array.length; i++) {
             // loop-invariant: items[0..numTops-1] represents the current lead collection in a heap data structure
             //  the root of the heap is the currently trailing item in the lead collection,
             //  which will lose its membership if a better item is found from position i onwards
-            E item = items.get(i);
-            E worstLeadItem = items.get(0);
+            E item = array[i];
+            E worstLeadItem = array[0];
             if (comparator.compare(item, worstLeadItem) < 0) {
                 // item < worstLeadItem, so shall be included in the lead collection
-                items.set(0, item);
+                array[0] = item;
                 // demote worstLeadItem back to the tail collection, at the orginal position of item
-                items.set(i, worstLeadItem);
+                array[i] = worstLeadItem;
                 // repair the heap condition of the lead collection
-                heapSink(items, numTops, reverseComparator);
+                heapSink(array, numTops, reverseComparator);
             }
         }
 
@@ -134,13 +704,52 @@ public class SorterImpl<E> implements Sorter<E> {
 
             // TODO swap item[0] and item[i];
             //  this moves item[0] to its designated position
-            swap(items, 0, i);
+            swap(array, 0, i);
 
             // TODO the new root may have violated the heap condition
             //  repair the heap condition on the remaining heap of size i
-            heapSink(items, i, reverseComparator);
+            heapSink(array, i, reverseComparator);
         }
-        return items;
+    }
+
+    /**
+     * Organizes and sorts the lead collection of numTops items into array[0..numTops-1]
+     * by introselect: quick select partitions around the numTops-th item until array[numTops-1] is in its final position,
+     * after which only the lead collection array[0..numTops-1] is sorted.
+     * If partitioning does not converge within 2 log n rounds, the lead collection is selected and sorted
+     * by the heap path instead, in O(n log numTops), which bounds the selection by O(n log n).
+     * Otherwise the selected lead collection is sorted by quick sort, which has no such worst case bound.
+     */
+    private void topsSelectSort(E[] array, int numTops, Comparator<E> comparator) {
+        int startIndex = 0;
+        int lastIndex = array.length - 1;
+        int targetIndex = numTops - 1;
+        int depthLimit = 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(array.length));
+
+        // loop-invariant: all items before startIndex <= array[startIndex..lastIndex] <= all items after lastIndex
+        //  and startIndex <= targetIndex <= lastIndex
+        while (lastIndex - startIndex >= INSERTION_SORT_CUTOFF) {
+            if (depthLimit-- == 0) {
+                // the partitions are degenerating, any order of the array suits the heap path
+                topsHeapSort(array, numTops, comparator);
+                return;
+            }
+            int[] middle = partition(array, startIndex, lastIndex, comparator);
+            if (targetIndex < middle[0]) {
+                lastIndex = middle[0] - 1;
+            } else if (targetIndex > middle[1]) {
+                startIndex = middle[1] + 1;
+            } else {
+                // the target is among the items that equal the pivot, which are all in their final positions
+                break;
+            }
+        }
+        if (lastIndex - startIndex < INSERTION_SORT_CUTOFF) {
+            insertionSort(array, startIndex, lastIndex, comparator);
+        }
+
+        // the lead collection is complete, but in arbitrary order
+        quickSort(array, 0, targetIndex, comparator);
     }
 
     /**
@@ -171,6 +780,31 @@ public class SorterImpl<E> implements Sorter<E> {
             }
         }
     }
+
+    /**
+     * Repairs the zero-based heap condition for items[heapSize-1] on the basis of the comparator
+     * all items[0..heapSize-2] are assumed to satisfy the heap condition
+     * (the working array equivalent of heapSwim on a list)
+     * @param items
+     * @param heapSize
+     * @param comparator
+     */
+    protected void heapSwim(E[] items, int heapSize, Comparator<E> comparator) {
+        int childIndex = heapSize - 1;
+        E child = items[childIndex];
+
+        // move parents down until the position of the child has been found
+        while (childIndex > 0) {
+            int parentIndex = (childIndex - 1) / 2;
+            if (comparator.compare(child, items[parentIndex]) >= 0) {
+                break;
+            }
+            items[childIndex] = items[parentIndex];
+            childIndex = parentIndex;
+        }
+        items[childIndex] = child;
+    }
+
     /**
      * Repairs the zero-based heap condition for its root items[0] on the basis of the comparator
      * all items[1..heapSize-1] are assumed to satisfy the heap condition
@@ -207,4 +841,34 @@ public class SorterImpl<E> implements Sorter<E> {
             parentIndex = smallest;
         }
     }
+
+    /**
+     * Repairs the zero-based heap condition for its root items[0] on the basis of the comparator
+     * all items[1..heapSize-1] are assumed to satisfy the heap condition
+     * (the working array equivalent of heapSink on a list)
+     * @param items
+     * @param heapSize
+     * @param comparator
+     */
+    protected void heapSink(E[] items, int heapSize, Comparator<E> comparator) {
+        int parentIndex = 0;
+        E parent = items[0];
+
+        // move the smallest children up until the position of the parent has been found
+        while (true) {
+            int childIndex = 2 * parentIndex + 1;
+            if (childIndex >= heapSize) {
+                break;
+            }
+            if (childIndex + 1 < heapSize && comparator.compare(items[childIndex + 1], items[childIndex]) < 0) {
+                childIndex++;
+            }
+            if (comparator.compare(items[childIndex], parent) >= 0) {
+                break;
+            }
+            items[parentIndex] = items[childIndex];
+            parentIndex = childIndex;
+        }
+        items[parentIndex] = parent;
+    }
 }
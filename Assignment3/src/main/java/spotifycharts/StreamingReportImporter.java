@@ -0,0 +1,402 @@
+package spotifycharts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports streaming reports into a song table, accumulating the streams counts of every song and country.
+ * A report is a CSV text in UTF-8 with one line per song and country:
+ *      country,artist,title,language,streamsCount
+ * e.g. NL,Kris Kross Amsterdam,Vluchtstrook,NL,40
+ * Country and language are given by the names of the Song.Country and Song.Language constants.
+ * Fields that contain commas or quotes are enclosed in double quotes, with quotes inside escaped as "".
+ * Any field may be quoted, also the streams count, which shall then consist of digits only.
+ * A report is rejected if the accumulated streams counts of a song would exceed the range of an int.
+ * An optional header line starting with 'country' is skipped, as are empty lines.
+ *
+ * The report is parsed at byte level on a separate parser thread, which hands batches of rows
+ * to the importing thread that resolves the songs by (artist, title) and aggregates the counts.
+ * The counts of a report are staged in a separate table, which is only merged into the song table
+ * after the whole report has been parsed, such that a rejected report leaves the song table unchanged.
+ * Songs that are not in the table yet are appended to it.
+ */
+public class StreamingReportImporter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BATCH_SIZE = 4096;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final int NUMBER_OF_FIELDS = 5;
+    private static final Song.Country[] COUNTRIES = Song.Country.values();
+    private static final Song.Language[] LANGUAGES = Song.Language.values();
+    // marks the end of the report in the queue of batches
+    private static final RowBatch END_OF_REPORT = new RowBatch();
+
+    private final SongTable songTable;
+
+    public StreamingReportImporter(SongTable songTable) {
+        this.songTable = songTable;
+    }
+
+    /**
+     * Imports the report from the given file
+     * @param reportFile
+     * @return  the number of rows that have been imported
+     */
+    public long importReport(Path reportFile) {
+        try (InputStream input = Files.newInputStream(reportFile)) {
+            return importReport(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read streaming report " + reportFile, e);
+        }
+    }
+
+    /**
+     * Imports the report from the input, until the end of the input
+     * the input is not closed
+     * @param input
+     * @return  the number of rows that have been imported
+     */
+    public long importReport(InputStream input) {
+        BlockingQueue<RowBatch> batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<RuntimeException> parserFailure = new AtomicReference<>();
+
+        Thread parser = new Thread(() -> {
+            try {
+                new ReportParser(input, batches).parse();
+            } catch (IOException e) {
+                parserFailure.set(new UncheckedIOException("Could not read streaming report", e));
+            } catch (InterruptedException e) {
+                // the importer has stopped, there is no one left to hand batches to
+                return;
+            } catch (RuntimeException e) {
+                parserFailure.set(e);
+            }
+            try {
+                batches.put(END_OF_REPORT);
+            } catch (InterruptedException e) {
+                // the importer has stopped already
+            }
+        }, "streaming-report-parser");
+        parser.setDaemon(true);
+        parser.start();
+
+        SongTable stagedCounts = new SongTable();
+        long numRows = 0;
+        try {
+            for (RowBatch batch = batches.take(); batch != END_OF_REPORT; batch = batches.take()) {
+                aggregate(batch, stagedCounts);
+                numRows += batch.size;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import of streaming report has been interrupted", e);
+        } finally {
+            // stops the parser if aggregation failed
+            parser.interrupt();
+        }
+
+        if (parserFailure.get() != null) {
+            throw parserFailure.get();
+        }
+        merge(stagedCounts);
+        return numRows;
+    }
+
+    private static void aggregate(RowBatch batch, SongTable stagedCounts) {
+        for (int i = 0; i < batch.size; i++) {
+            int index = stagedCounts.indexOf(batch.artists[i], batch.titles[i]);
+            if (index < 0) {
+                index = stagedCounts.add(batch.artists[i], batch.titles[i], LANGUAGES[batch.languages[i]]);
+            }
+            try {
+                stagedCounts.addStreamsCountOfCountry(index, COUNTRIES[batch.countries[i]], batch.streamsCounts[i]);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Malformed streaming report: the streams counts of "
+                        + batch.artists[i] + " - " + batch.titles[i] + " add up beyond the range of an int", e);
+            }
+        }
+    }
+
+    /**
+     * Adds the staged counts of a completely parsed report to the song table
+     * all sums are checked upfront, such that a report that would overflow a count leaves the table unchanged
+     * @param stagedCounts  the accumulated counts of every distinct song of the report
+     */
+    private void merge(SongTable stagedCounts) {
+        for (int staged = 0; staged < stagedCounts.size(); staged++) {
+            int index = songTable.indexOf(stagedCounts.getArtist(staged), stagedCounts.getTitle(staged));
+            if (index < 0) {
+                // a new song gets the staged counts, which are in range already
+                continue;
+            }
+            try {
+                Math.addExact(songTable.getStreamsCountTotal(index), stagedCounts.getStreamsCountTotal(staged));
+                for (Song.Country country : COUNTRIES) {
+                    Math.addExact(songTable.getStreamsCountOfCountry(index, country),
+                            stagedCounts.getStreamsCountOfCountry(staged, country));
+                }
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Streaming report would raise the streams counts of "
+                        + stagedCounts.getArtist(staged) + " - " + stagedCounts.getTitle(staged)
+                        + " beyond the range of an int", e);
+            }
+        }
+
+        for (int staged = 0; staged < stagedCounts.size(); staged++) {
+            String artist = stagedCounts.getArtist(staged);
+            String title = stagedCounts.getTitle(staged);
+            int index = songTable.indexOf(artist, title);
+            if (index < 0) {
+                index = songTable.add(artist, title, stagedCounts.getLanguage(staged));
+            }
+            for (Song.Country country : COUNTRIES) {
+                int streamsCount = stagedCounts.getStreamsCountOfCountry(staged, country);
+                if (streamsCount != 0) {
+                    songTable.addStreamsCountOfCountry(index, country, streamsCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * A batch of parsed rows in columns
+     */
+    private static class RowBatch {
+        final byte[] countries = new byte[BATCH_SIZE];
+        final String[] artists = new String[BATCH_SIZE];
+        final String[] titles = new String[BATCH_SIZE];
+        final byte[] languages = new byte[BATCH_SIZE];
+        final int[] streamsCounts = new int[BATCH_SIZE];
+        int size = 0;
+    }
+
+    /**
+     * Parses the bytes of a report into batches of rows
+     */
+    private static class ReportParser {
+        private final InputStream input;
+        private final BlockingQueue<RowBatch> batches;
+
+        private RowBatch batch = new RowBatch();
+        private long lineNumber = 1;
+        private int fieldIndex = 0;
+        private byte[] field = new byte[256];   // the bytes of the current text field
+        private int fieldLength = 0;
+        private boolean inQuotes = false;
+        private boolean quotedField = false;    // whether the current field started with a quote
+        private boolean afterQuote = false;     // whether the previous byte in quotes was a quote
+        private long streamsCount = 0;
+        private boolean hasDigits = false;
+        private boolean inHeader = false;       // whether the rest of the line is a header that shall be skipped
+        // the parsed fields of the current row
+        private int country;
+        private String artist;
+        private String title;
+        private int language;
+
+        ReportParser(InputStream input, BlockingQueue<RowBatch> batches) {
+            this.input = input;
+            this.batches = batches;
+        }
+
+        void parse() throws IOException, InterruptedException {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = input.read(buffer)) >= 0) {
+                for (int i = 0; i < length; i++) {
+                    accept(buffer[i]);
+                }
+            }
+            if (inQuotes && !afterQuote) {
+                throw malformed("unterminated quoted field");
+            }
+            inQuotes = false;
+            if (!inHeader) {
+                endOfLine();
+            }
+            if (batch.size > 0) {
+                batches.put(batch);
+            }
+        }
+
+        private void accept(byte b) throws InterruptedException {
+            if (inHeader) {
+                if (b == '\n') {
+                    inHeader = false;
+                    resetLine();
+                }
+                return;
+            }
+            if (inQuotes) {
+                if (afterQuote) {
+                    afterQuote = false;
+                    if (b == '"') {
+                        // an escaped quote
+                        appendToField(b);
+                        return;
+                    }
+                    // the closing quote, the byte is handled after the field
+                    inQuotes = false;
+                } else {
+                    if (b == '"') {
+                        afterQuote = true;
+                    } else {
+                        appendToField(b);
+                    }
+                    return;
+                }
+            }
+            switch (b) {
+                case ',':
+                    endOfField();
+                    break;
+                case '\n':
+                    endOfLine();
+                    break;
+                case '\r':
+                    break;
+                case '"':
+                    if (fieldLength > 0 || quotedField) {
+                        throw malformed("unexpected quote");
+                    }
+                    inQuotes = true;
+                    quotedField = true;
+                    break;
+                default:
+                    if (quotedField) {
+                        throw malformed("unexpected characters after quoted field");
+                    }
+                    if (fieldIndex == NUMBER_OF_FIELDS - 1) {
+                        appendDigit(b);
+                    } else {
+                        appendToField(b);
+                    }
+            }
+        }
+
+        private void appendToField(byte b) {
+            if (fieldLength == field.length) {
+                field = Arrays.copyOf(field, 2 * fieldLength);
+            }
+            field[fieldLength++] = b;
+        }
+
+        private void appendDigit(byte b) {
+            if (b < '0' || b > '9') {
+                throw malformed("invalid streams count");
+            }
+            streamsCount = 10 * streamsCount + (b - '0');
+            if (streamsCount > Integer.MAX_VALUE) {
+                throw malformed("streams count out of range");
+            }
+            hasDigits = true;
+        }
+
+        private void endOfField() {
+            switch (fieldIndex) {
+                case 0:
+                    if (lineNumber == 1 && fieldEqualsIgnoreCase("country")) {
+                        inHeader = true;
+                        return;
+                    }
+                    country = ordinalOf(COUNTRIES, "country");
+                    break;
+                case 1:
+                    artist = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+                    break;
+                case 2:
+                    title = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+                    break;
+                case 3:
+                    language = ordinalOf(LANGUAGES, "language");
+                    break;
+                default:
+                    throw malformed("too many fields");
+            }
+            fieldIndex++;
+            fieldLength = 0;
+            quotedField = false;
+        }
+
+        private void endOfLine() throws InterruptedException {
+            if (fieldIndex == 0 && fieldLength == 0 && !quotedField) {
+                // skip empty lines
+                lineNumber++;
+                return;
+            }
+            if (fieldIndex == NUMBER_OF_FIELDS - 1 && quotedField) {
+                // the digits of a quoted streams count have been collected as text
+                for (int i = 0; i < fieldLength; i++) {
+                    appendDigit(field[i]);
+                }
+            }
+            if (fieldIndex != NUMBER_OF_FIELDS - 1 || !hasDigits) {
+                throw malformed("expected " + NUMBER_OF_FIELDS + " fields");
+            }
+            int row = batch.size++;
+            batch.countries[row] = (byte) country;
+            batch.artists[row] = artist;
+            batch.titles[row] = title;
+            batch.languages[row] = (byte) language;
+            batch.streamsCounts[row] = (int) streamsCount;
+            if (batch.size == BATCH_SIZE) {
+                batches.put(batch);
+                batch = new RowBatch();
+            }
+            resetLine();
+        }
+
+        private void resetLine() {
+            lineNumber++;
+            fieldIndex = 0;
+            fieldLength = 0;
+            quotedField = false;
+            streamsCount = 0;
+            hasDigits = false;
+        }
+
+        /**
+         * Finds the constant with the name that is in the current field, without decoding the field into a String
+         */
+        private <T extends Enum<T>> int ordinalOf(T[] constants, String fieldName) {
+            for (T constant : constants) {
+                if (fieldEquals(constant.name(), false)) {
+                    return constant.ordinal();
+                }
+            }
+            throw malformed("unknown " + fieldName);
+        }
+
+        private boolean fieldEqualsIgnoreCase(String text) {
+            return fieldEquals(text, true);
+        }
+
+        /**
+         * Compares the bytes of the current field with an ASCII text
+         */
+        private boolean fieldEquals(String text, boolean ignoreCase) {
+            if (text.length() != fieldLength) {
+                return false;
+            }
+            for (int i = 0; i < fieldLength; i++) {
+                char c = (char) field[i];
+                if (c != text.charAt(i) && !(ignoreCase && Character.toLowerCase(c) == Character.toLowerCase(text.charAt(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private IllegalArgumentException malformed(String reason) {
+            return new IllegalArgumentException("Malformed streaming report at line " + lineNumber + ": " + reason);
+        }
+    }
+}
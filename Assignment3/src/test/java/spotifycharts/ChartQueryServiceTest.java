@@ -0,0 +1,98 @@
+package spotifycharts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChartQueryServiceTest {
+    private ChartsCalculator chartsCalculator;
+    private List<Song> songs;
+
+    @BeforeEach
+    void setup() {
+        chartsCalculator = new ChartsCalculator(41L);
+        songs = chartsCalculator.registerZipfDistributedSongs(20000);
+    }
+
+    @Test
+    void queriesYieldTheLeadSongsOfEveryChart() {
+        try (ChartQueryService service = chartsCalculator.createQueryService()) {
+            assertEquals(songs.size(), service.size());
+            checkChart(songs, Song::compareByHighestStreamsCountTotal, service.mostStreamed(10).join(), 10);
+            checkChart(songs, Song.BY_LOWEST_STREAMS_COUNT_TOTAL, service.leastStreamed(25).join(), 25);
+            checkChart(songs, Song::compareForDutchNationalChart, service.dutchNationalChart(5).join(), 5);
+            for (Song.Country country : Song.Country.values()) {
+                checkChart(songs, IntKeyComparator.descending(song -> song.getStreamsCountOfCountry(country)),
+                        service.countryChart(country, 10).join(), 10);
+            }
+            for (Song.Language language : Song.Language.values()) {
+                List<Song> languageSongs = new ArrayList<>();
+                for (Song song : songs) {
+                    if (song.getLanguage() == language) {
+                        languageSongs.add(song);
+                    }
+                }
+                checkChart(languageSongs, Song::compareByHighestStreamsCountTotal,
+                        service.languageChart(language, 10).join(), 10);
+            }
+            assertEquals(0, service.mostStreamed(0).join().size());
+            assertEquals(songs.size(), service.leastStreamed(songs.size() + 1).join().size());
+            assertThrows(IllegalArgumentException.class, () -> service.mostStreamed(-1));
+        }
+    }
+
+    @Test
+    void concurrentQueriesShareEveryRanking() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (ChartQueryService service = new ChartQueryService(songs, executor)) {
+            List<CompletableFuture<List<Song>>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                results.add(service.mostStreamed(1 + i % 10));
+                results.add(service.countryChart(Song.Country.NL, 1 + i % 10));
+                results.add(service.languageChart(Song.Language.NL, 1 + i % 10));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+            // one sort by total, one by Dutch streams counts and one of the Dutch songs
+            assertEquals(3, service.getNumRankingsCalculated());
+            assertEquals(songs.size(), service.mostStreamed(songs.size()).join().size());
+            assertEquals(3, service.getNumRankingsCalculated());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void snapshotIsNotAffectedByLaterChanges() {
+        try (ChartQueryService service = chartsCalculator.createQueryService()) {
+            Song leastStreamed = service.leastStreamed(1).join().get(0);
+            Song song = null;
+            for (Song candidate : songs) {
+                if (candidate.getArtist().equals(leastStreamed.getArtist()) && candidate.getTitle().equals(leastStreamed.getTitle())) {
+                    song = candidate;
+                }
+            }
+            song.setStreamsCountOfCountry(Song.Country.UK, Integer.MAX_VALUE / 2);
+            assertEquals(leastStreamed.toString(), service.leastStreamed(1).join().get(0).toString());
+            assertNotEquals(song.toString(), service.mostStreamed(1).join().get(0).toString());
+        }
+    }
+
+    private void checkChart(List<Song> songs, Comparator<Song> ranking, List<Song> chart, int numTops) {
+        List<Song> expected = new ArrayList<>(songs);
+        expected.sort(ranking);
+        assertEquals(Integer.min(numTops, expected.size()), chart.size());
+        for (int i = 0; i < chart.size(); i++) {
+            assertEquals(0, ranking.compare(expected.get(i), chart.get(i)),
+                    "rank " + i + ": " + expected.get(i) + " vs " + chart.get(i));
+        }
+    }
+}
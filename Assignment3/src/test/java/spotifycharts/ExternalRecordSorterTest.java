@@ -0,0 +1,104 @@
+package spotifycharts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalRecordSorterTest {
+    @TempDir
+    Path tempDir;
+    private List<Song> songs;
+    private Path archiveFile;
+
+    @BeforeEach
+    void setup() {
+        songs = new ChartsCalculator(17L).registerStreamedSongs(10000);
+        archiveFile = tempDir.resolve("archive.bin");
+        ChartRecords.write(songs, archiveFile);
+    }
+
+    @Test
+    void archiveHoldsAllRecords() throws IOException {
+        assertEquals((long) songs.size() * ChartRecords.RECORD_SIZE, Files.size(archiveFile));
+        int[] ids = ChartRecords.readIds(archiveFile);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i, ids[i]);
+        }
+    }
+
+    @Test
+    void externalSortYieldsSameOrderAsListSort() throws IOException {
+        checkSort(new ExternalRecordSorter(1000, tempDir), 10, ChartRecords.BY_HIGHEST_STREAMS_COUNT_TOTAL,
+                Song::compareByHighestStreamsCountTotal);
+        checkSort(new ExternalRecordSorter(3333, tempDir), 4, ChartRecords.FOR_DUTCH_NATIONAL_CHART,
+                Song::compareForDutchNationalChart);
+        // a single run is sorted straight into the output
+        checkSort(new ExternalRecordSorter(100000, tempDir), 1, ChartRecords.BY_HIGHEST_STREAMS_COUNT_TOTAL,
+                Song::compareByHighestStreamsCountTotal);
+
+        // all temporary run files have been removed
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void incompleteArchivesAreRejected() throws IOException {
+        Path brokenFile = tempDir.resolve("broken.bin");
+        Files.write(brokenFile, Arrays.copyOf(Files.readAllBytes(archiveFile), ChartRecords.RECORD_SIZE * 3 + 5));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalRecordSorter(2, tempDir)
+                .sort(brokenFile, tempDir.resolve("sorted.bin"), ChartRecords.BY_HIGHEST_STREAMS_COUNT_TOTAL));
+    }
+
+    @Test
+    void dutchRecordsLeadAlsoWithNearMaximumStreamsCounts() throws IOException {
+        // the totals of these records exceed the range of an int by far
+        List<Song> largeSongs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Song song = new Song("Artist" + i, "Title" + i, i % 2 == 0 ? Song.Language.NL : Song.Language.EN);
+            for (Song.Country country : Song.Country.values()) {
+                song.setStreamsCountOfCountry(country, Integer.MAX_VALUE - i * 1000 - country.ordinal());
+            }
+            largeSongs.add(song);
+        }
+        // a Dutch record with hardly any streams still leads all other records
+        Song smallDutchSong = new Song("Artist", "Small", Song.Language.NL);
+        smallDutchSong.setStreamsCountOfCountry(Song.Country.NL, 1);
+        largeSongs.add(smallDutchSong);
+        Path largeArchiveFile = tempDir.resolve("large.bin");
+        Path sortedFile = tempDir.resolve("sorted.bin");
+        ChartRecords.write(largeSongs, largeArchiveFile);
+
+        new ExternalRecordSorter(2, tempDir).sort(largeArchiveFile, sortedFile, ChartRecords.FOR_DUTCH_NATIONAL_CHART);
+        assertArrayEquals(new int[] { 0, 2, 4, 6, 1, 3, 5 }, ChartRecords.readIds(sortedFile));
+
+        new ExternalRecordSorter(2, tempDir).sort(largeArchiveFile, sortedFile, ChartRecords.BY_HIGHEST_STREAMS_COUNT_TOTAL);
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5, 6 }, ChartRecords.readIds(sortedFile));
+    }
+
+    private void checkSort(ExternalRecordSorter sorter, int expectedRuns, ChartRecords.RecordKey recordKey,
+                           Comparator<Song> ranking) throws IOException {
+        Path sortedFile = tempDir.resolve("sorted.bin");
+        assertEquals(expectedRuns, sorter.sort(archiveFile, sortedFile, recordKey));
+        assertEquals(Files.size(archiveFile), Files.size(sortedFile));
+
+        int[] ids = ChartRecords.readIds(sortedFile);
+        List<Song> sortedSongs = new ArrayList<>();
+        for (int id : ids) {
+            sortedSongs.add(songs.get(id));
+        }
+        assertEquals(new HashSet<>(songs), new HashSet<>(sortedSongs));
+        List<Song> expectedSongs = new ArrayList<>(songs);
+        expectedSongs.sort(ranking);
+        String difference = SongSorterTest.findFirstDifference(expectedSongs, sortedSongs, ranking, 3);
+        assertNull(difference, difference);
+    }
+}
@@ -0,0 +1,45 @@
+package spotifycharts;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntKeyComparatorTest {
+    private final ToIntFunction<Integer> identity = Integer::intValue;
+
+    @Test
+    void extremeKeysAreOrderedCorrectly() {
+        List<Integer> keys = new ArrayList<>(List.of(0, Integer.MAX_VALUE, -1, Integer.MIN_VALUE, 1, Integer.MIN_VALUE + 1));
+        List<Integer> expected = new ArrayList<>(keys);
+        Collections.sort(expected);
+
+        keys.sort(IntKeyComparator.ascending(identity));
+        assertEquals(expected, keys);
+
+        Collections.reverse(expected);
+        keys.sort(IntKeyComparator.descending(identity));
+        assertEquals(expected, keys);
+        keys.sort(IntKeyComparator.ascending(identity).reversed());
+        assertEquals(expected, keys);
+    }
+
+    @Test
+    void flaggedItemsGoFirstAndLastWhenReversed() {
+        IntKeyComparator<Integer> evenFirst = IntKeyComparator.descending(identity).flaggedFirst(i -> i % 2 == 0);
+        List<Integer> keys = new ArrayList<>(List.of(3, 4, Integer.MAX_VALUE, Integer.MIN_VALUE, 7, 2));
+
+        keys.sort(evenFirst);
+        assertEquals(List.of(4, 2, Integer.MIN_VALUE, Integer.MAX_VALUE, 7, 3), keys);
+
+        keys.sort(evenFirst.reversed());
+        assertEquals(List.of(3, 7, Integer.MAX_VALUE, Integer.MIN_VALUE, 2, 4), keys);
+
+        assertTrue(evenFirst.sortKey(Integer.MIN_VALUE) < evenFirst.sortKey(Integer.MAX_VALUE));
+        assertEquals(0, evenFirst.compare(6, 6));
+    }
+}
@@ -0,0 +1,129 @@
+package spotifycharts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveChartTest {
+    private ChartsCalculator chartsCalculator;
+    private Comparator<Song> rankingSchemeTotal = Song::compareByHighestStreamsCountTotal;
+    private Comparator<Song> rankingSchemeDutchNational = Song::compareForDutchNationalChart;
+    private Comparator<Song> rankingSchemeLeast = Comparator.comparing(Song::getStreamsCountTotal);
+
+    @BeforeEach
+    void setup() {
+        chartsCalculator = new ChartsCalculator(8L);
+        chartsCalculator.registerStreamedSongs(500);
+    }
+
+    @Test
+    void liveChartsFollowRegistrationsAndChanges() {
+        LiveChart mostStreamed = chartsCalculator.createLiveChart(5, rankingSchemeTotal);
+        LiveChart dutchNational = chartsCalculator.createLiveChart(5, rankingSchemeDutchNational);
+        LiveChart leastStreamed = chartsCalculator.createLiveChart(10, rankingSchemeLeast);
+        checkTops(mostStreamed, rankingSchemeTotal);
+        checkTops(dutchNational, rankingSchemeDutchNational);
+        checkTops(leastStreamed, rankingSchemeLeast);
+
+        // songs that are registered after creation of the charts are included as well
+        chartsCalculator.registerStreamedSongs(500);
+        assertEquals(1000, mostStreamed.size());
+        checkTops(mostStreamed, rankingSchemeTotal);
+        checkTops(dutchNational, rankingSchemeDutchNational);
+        checkTops(leastStreamed, rankingSchemeLeast);
+
+        // promote songs from the tail, demote songs from the tops and change random songs
+        Random randomizer = new Random(9L);
+        List<Song> songs = chartsCalculator.getSongs();
+        for (int i = 0; i < 300; i++) {
+            Song song = (i % 3 == 0) ? mostStreamed.getTops().get(randomizer.nextInt(5))
+                    : (i % 3 == 1) ? leastStreamed.getTops().get(randomizer.nextInt(10))
+                    : songs.get(randomizer.nextInt(songs.size()));
+            Song.Country country = Song.Country.values()[randomizer.nextInt(Song.Country.values().length)];
+            song.setStreamsCountOfCountry(country, randomizer.nextInt(200000));
+            checkTops(mostStreamed, rankingSchemeTotal);
+            checkTops(dutchNational, rankingSchemeDutchNational);
+            checkTops(leastStreamed, rankingSchemeLeast);
+        }
+    }
+
+    @Test
+    void unregisteredSongsLeaveTheChart() {
+        List<Song> songs = new ArrayList<>(chartsCalculator.getSongs());
+        LiveChart mostStreamed = new LiveChart(5, rankingSchemeTotal, songs);
+        Song leader = mostStreamed.getTops().get(0);
+
+        songs.remove(leader);
+        mostStreamed.unregister(leader);
+        assertFalse(mostStreamed.getTops().contains(leader));
+        assertEquals(499, mostStreamed.size());
+
+        // the strongest remaining song has taken the vacant position
+        List<Song> expected = new ArrayList<>(songs);
+        expected.sort(rankingSchemeTotal);
+        String difference = SongSorterTest.findFirstDifference(expected.subList(0, 5), mostStreamed.getTops(), rankingSchemeTotal, 5);
+        assertNull(difference, difference);
+
+        // songs that are registered hereafter are included
+        songs.add(leader);
+        mostStreamed.register(leader);
+        assertEquals(leader, mostStreamed.getTops().get(0));
+    }
+
+    @Test
+    void smallChartsHoldAllSongs() {
+        LiveChart emptyChart = new LiveChart(0, rankingSchemeTotal, chartsCalculator.getSongs());
+        assertEquals(List.of(), emptyChart.getTops());
+
+        LiveChart largeChart = new LiveChart(1000, rankingSchemeTotal, chartsCalculator.getSongs());
+        assertEquals(500, largeChart.getTops().size());
+        checkTops(largeChart, rankingSchemeTotal);
+    }
+
+    @Test
+    void liveChartsFollowConcurrentStreams() throws InterruptedException {
+        LiveChart mostStreamed = chartsCalculator.createLiveChart(5, rankingSchemeTotal);
+        LiveChart leastStreamed = chartsCalculator.createLiveChart(10, rankingSchemeLeast);
+        List<Song> songs = chartsCalculator.getSongs();
+        int expectedTotal = songs.stream().mapToInt(Song::getStreamsCountTotal).sum();
+
+        // every thread streams random songs, including the leaders and the tail of the charts
+        int numThreads = 8;
+        int numStreams = 5000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            Random randomizer = new Random(t);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < numStreams; i++) {
+                    Song song = (i % 10 == 0) ? mostStreamed.getTops().get(0)
+                            : (i % 10 == 1) ? leastStreamed.getTops().get(0)
+                            : songs.get(randomizer.nextInt(songs.size()));
+                    song.addStreams(Song.Country.values()[randomizer.nextInt(Song.Country.values().length)], 100);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(expectedTotal + numThreads * numStreams * 100,
+                songs.stream().mapToInt(Song::getStreamsCountTotal).sum());
+        checkTops(mostStreamed, rankingSchemeTotal);
+        checkTops(leastStreamed, rankingSchemeLeast);
+    }
+
+    private void checkTops(LiveChart liveChart, Comparator<Song> ranking) {
+        List<Song> expected = new ArrayList<>(chartsCalculator.getSongs());
+        expected.sort(ranking);
+        List<Song> tops = liveChart.getTops();
+        String difference = SongSorterTest.findFirstDifference(
+                expected.subList(0, Integer.min(liveChart.getNumTops(), expected.size())), tops, ranking, 5);
+        assertNull(difference, difference);
+    }
+}
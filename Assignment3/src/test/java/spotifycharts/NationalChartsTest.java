@@ -0,0 +1,59 @@
+package spotifycharts;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NationalChartsTest {
+
+    @Test
+    void allChartsMatchFullSorts() {
+        ChartsCalculator chartsCalculator = new ChartsCalculator(12L);
+        List<Song> songs = chartsCalculator.registerStreamedSongs(30000);
+        NationalCharts nationalCharts = chartsCalculator.calculateNationalCharts(20);
+        assertEquals(20, nationalCharts.getNumTops());
+
+        for (Song.Country country : Song.Country.values()) {
+            Comparator<Song> ranking = Comparator.comparingInt((Song song) -> song.getStreamsCountOfCountry(country)).reversed();
+            List<Song> expected = new ArrayList<>(songs);
+            expected.sort(ranking);
+            String difference = SongSorterTest.findFirstDifference(expected.subList(0, 20),
+                    nationalCharts.getCountryChart(country), ranking, 3);
+            assertNull(difference, country + ": " + difference);
+        }
+
+        Comparator<Song> ranking = Song::compareByHighestStreamsCountTotal;
+        for (Song.Language language : Song.Language.values()) {
+            List<Song> expected = songs.stream()
+                    .filter(song -> song.getLanguage() == language)
+                    .sorted(ranking)
+                    .limit(20)
+                    .collect(Collectors.toList());
+            String difference = SongSorterTest.findFirstDifference(expected,
+                    nationalCharts.getLanguageChart(language), ranking, 3);
+            assertNull(difference, language + ": " + difference);
+        }
+    }
+
+    @Test
+    void chartsHoldAtMostAllSongsOfTheirLanguage() {
+        Song songKKA = new Song("Kris Kross Amsterdam", "Vluchtstrook", Song.Language.NL);
+        songKKA.setStreamsCountOfCountry(Song.Country.NL, 40);
+        Song songJVT = new Song("De Jeugd Van Tegenwoordig", "Sterrenstof", Song.Language.NL);
+        songJVT.setStreamsCountOfCountry(Song.Country.NL, 70);
+        Song songBB = new Song("Bad Bunny", "La Coriente", Song.Language.SP);
+        songBB.setStreamsCountOfCountry(Song.Country.SP, 10);
+
+        NationalCharts nationalCharts = NationalCharts.calculate(List.of(songKKA, songJVT, songBB), 5);
+        assertEquals(List.of(songJVT, songKKA), nationalCharts.getLanguageChart(Song.Language.NL));
+        assertEquals(List.of(songBB), nationalCharts.getLanguageChart(Song.Language.SP));
+        assertEquals(List.of(), nationalCharts.getLanguageChart(Song.Language.IT));
+        assertEquals(3, nationalCharts.getCountryChart(Song.Country.UK).size());
+        assertEquals(songBB, nationalCharts.getCountryChart(Song.Country.SP).get(0));
+
+        assertTrue(NationalCharts.calculate(List.of(songKKA), 0).getCountryChart(Song.Country.NL).isEmpty());
+    }
+}
@@ -0,0 +1,59 @@
+package spotifycharts;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongBuilderTest {
+
+    @Test
+    void zipfDistributedSongsAreUnique() {
+        SongBuilder.reSeed(11L);
+        List<Song> songs = SongBuilder.createZipfDistributedSongs(100000, 1.0, 1000000);
+        assertEquals(100000, songs.size());
+        Set<String> artistsAndTitles = new HashSet<>();
+        for (Song song : songs) {
+            assertTrue(artistsAndTitles.add(song.getArtist() + " - " + song.getTitle()), song.toString());
+        }
+    }
+
+    @Test
+    void zipfDistributedSongsAreReproducible() {
+        SongBuilder.reSeed(23L);
+        List<Song> songs1 = SongBuilder.createZipfDistributedSongs(5000, 1.1, 1000000);
+        SongBuilder.reSeed(23L);
+        List<Song> songs2 = SongBuilder.createZipfDistributedSongs(5000, 1.1, 1000000);
+        for (int i = 0; i < songs1.size(); i++) {
+            assertEquals(songs1.get(i).toString(), songs2.get(i).toString());
+            for (Song.Country country : Song.Country.values()) {
+                assertEquals(songs1.get(i).getStreamsCountOfCountry(country), songs2.get(i).getStreamsCountOfCountry(country));
+            }
+        }
+    }
+
+    @Test
+    void zipfDistributedStreamsCountsAreHeavyTailed() {
+        SongBuilder.reSeed(37L);
+        List<Song> songs = new ChartsCalculator(37L).registerZipfDistributedSongs(10000);
+        songs.sort(Song::compareByHighestStreamsCountTotal);
+
+        // every popularity rank occurs once, so the streams count totals follow maxStreamsCount / rank
+        assertEquals(SongBuilder.DEFAULT_MAX_STREAMS_COUNT, songs.get(0).getStreamsCountTotal());
+        assertEquals(SongBuilder.DEFAULT_MAX_STREAMS_COUNT / 2, songs.get(1).getStreamsCountTotal());
+        assertEquals(SongBuilder.DEFAULT_MAX_STREAMS_COUNT / 10000, songs.get(9999).getStreamsCountTotal());
+
+        // the top 1% of the songs collects more than half of all streams
+        long total = 0, topsTotal = 0;
+        for (int i = 0; i < songs.size(); i++) {
+            total += songs.get(i).getStreamsCountTotal();
+            if (i < songs.size() / 100) {
+                topsTotal += songs.get(i).getStreamsCountTotal();
+            }
+        }
+        assertTrue(topsTotal * 2 > total, topsTotal + " of " + total);
+    }
+}
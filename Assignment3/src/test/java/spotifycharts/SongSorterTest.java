@@ -35,6 +35,184 @@ class SongSorterTest {
         customSortAndCollectionSortResultInSameOrder(songSorter::quickSort);
     }
 
+    @Test
+    void keysQuickSortAndCollectionSortYieldSameOrder() {
+        List<Song> largeSongs = new ArrayList<>(new ChartsCalculator(6L).registerStreamedSongs(20000));
+        Comparator<Song> dutchNationalChart = Song::compareForDutchNationalChart;
+
+        List<Song> expectedSongs = new ArrayList<>(largeSongs);
+        expectedSongs.sort(dutchNationalChart);
+        songSorter.quickSort(largeSongs, Song::getDutchNationalChartKey);
+        String difference = findFirstDifference(expectedSongs, largeSongs, dutchNationalChart, 3);
+        assertNull(difference, difference);
+
+        expectedSongs.sort(rankingScheme);
+        songSorter.quickSort(largeSongs, Song::getHighestStreamsCountTotalKey);
+        difference = findFirstDifference(expectedSongs, largeSongs, rankingScheme, 3);
+        assertNull(difference, difference);
+    }
+
+    @Test
+    void radixSortAndCollectionSortYieldSameOrder() {
+        List<Song> largeSongs = new ArrayList<>(new ChartsCalculator(7L).registerStreamedSongs(20000));
+
+        // List.sort is a stable sort as well, so both shall yield the exact same order
+        List<Song> expectedSongs = new ArrayList<>(largeSongs);
+        expectedSongs.sort(rankingScheme);
+        List<Song> sortedSongs = new ArrayList<>(largeSongs);
+        songSorter.radixSortByHighestStreamsCountTotal(sortedSongs);
+        assertEquals(expectedSongs, sortedSongs);
+
+        Comparator<Song> byDutchStreamsCount = Comparator.comparingInt(
+                song -> song.getStreamsCountOfCountry(Song.Country.NL));
+        expectedSongs = new ArrayList<>(largeSongs);
+        expectedSongs.sort(byDutchStreamsCount.reversed());
+        sortedSongs = new LinkedList<>(largeSongs);
+        songSorter.radixSortByHighestStreamsCountOfCountry(sortedSongs, Song.Country.NL);
+        assertEquals(expectedSongs, sortedSongs);
+
+        // ascending order of signed keys, reusing the scratch buffers for a smaller list
+        expectedSongs = new ArrayList<>(fewSongs);
+        expectedSongs.sort(Comparator.comparingInt(song -> song.getTitle().hashCode()));
+        sortedSongs = new ArrayList<>(fewSongs);
+        songSorter.radixSort(sortedSongs, song -> song.getTitle().hashCode(), false);
+        assertEquals(expectedSongs, sortedSongs);
+    }
+
+    @Test
+    void intKeyComparatorsTakeTheSameOrderInAllSorts() {
+        List<Song> largeSongs = new ArrayList<>(new ChartsCalculator(16L).registerStreamedSongs(20000));
+        Map<IntKeyComparator<Song>, Comparator<Song>> equivalents = Map.of(
+                Song.BY_HIGHEST_STREAMS_COUNT_TOTAL, rankingScheme,
+                Song.FOR_DUTCH_NATIONAL_CHART, Song::compareForDutchNationalChart,
+                Song.BY_LOWEST_STREAMS_COUNT_TOTAL, Comparator.comparing(Song::getStreamsCountTotal));
+
+        for (Map.Entry<IntKeyComparator<Song>, Comparator<Song>> entry : equivalents.entrySet()) {
+            List<Song> expectedSongs = new ArrayList<>(largeSongs);
+            expectedSongs.sort(entry.getValue());
+
+            List<Song> sortedSongs = new ArrayList<>(largeSongs);
+            songSorter.quickSort(sortedSongs, entry.getKey());
+            String difference = findFirstDifference(expectedSongs, sortedSongs, entry.getValue(), 3);
+            assertNull(difference, difference);
+
+            // small and large lead collections are selected differently
+            for (int numTops : List.of(10, 5000)) {
+                sortedSongs = new ArrayList<>(largeSongs);
+                songSorter.topsHeapSort(numTops, sortedSongs, entry.getKey());
+                difference = findFirstDifference(expectedSongs.subList(0, numTops), sortedSongs.subList(0, numTops), entry.getValue(), 3);
+                assertNull(difference, difference);
+                assertEquals(new HashSet<>(largeSongs), new HashSet<>(sortedSongs));
+            }
+
+            // the stable sorts yield the exact same order as List.sort, which is stable as well
+            for (Sorter<Song> sorter : List.of(songSorter, new AdaptiveMergeSorter<Song>(), new AdaptiveMergeSorter<Song>(false))) {
+                sortedSongs = new ArrayList<>(largeSongs);
+                sorter.mergeSort(sortedSongs, entry.getKey());
+                assertEquals(expectedSongs, sortedSongs);
+            }
+        }
+    }
+
+    @Test
+    void mergeSortAndCollectionSortYieldSameOrder() {
+        customSortAndCollectionSortResultInSameOrder(new AdaptiveMergeSorter<Song>()::mergeSort);
+    }
+
+    @Test
+    void mergeSortIsStableOnAlmostSortedLists() {
+        List<Song> largeSongs = new ArrayList<>(new ChartsCalculator(5L).registerStreamedSongs(30000));
+        Comparator<Song> byLanguage = Comparator.comparing(Song::getLanguage);
+
+        for (Sorter<Song> sorter : List.of(new AdaptiveMergeSorter<Song>(), new AdaptiveMergeSorter<Song>(false))) {
+            // List.sort is a stable sort as well, so both shall yield the exact same order
+            List<Song> expectedSongs = new ArrayList<>(largeSongs);
+            expectedSongs.sort(byLanguage);
+            List<Song> sortedSongs = new ArrayList<>(largeSongs);
+            sorter.mergeSort(sortedSongs, byLanguage);
+            assertEquals(expectedSongs, sortedSongs);
+
+            // an almost sorted chart with a few changes
+            expectedSongs.sort(rankingScheme);
+            Collections.swap(expectedSongs, 10, 20000);
+            Collections.swap(expectedSongs, 5000, 29000);
+            sortedSongs = new ArrayList<>(expectedSongs);
+            expectedSongs.sort(rankingScheme);
+            sorter.mergeSort(sortedSongs, rankingScheme);
+            assertEquals(expectedSongs, sortedSongs);
+
+            // a reversed chart
+            Collections.reverse(sortedSongs);
+            sorter.mergeSort(sortedSongs, rankingScheme);
+            String difference = findFirstDifference(expectedSongs, sortedSongs, rankingScheme, 3);
+            assertNull(difference, difference);
+        }
+    }
+
+    @Test
+    void parallelAndSequentialQuickSortYieldSameOrderOnLargeLists() {
+        List<Song> largeSongs = new ArrayList<>(new ChartsCalculator(3L).registerStreamedSongs(30000));
+        List<Song> expectedSongs = new ArrayList<>(largeSongs);
+        expectedSongs.sort(rankingScheme);
+
+        List<Song> parallelSortedSongs = new ArrayList<>(largeSongs);
+        new SongSorter().quickSort(parallelSortedSongs, rankingScheme);
+        String difference = findFirstDifference(expectedSongs, parallelSortedSongs, rankingScheme, 3);
+        assertNull(difference, difference);
+
+        List<Song> sequentialSortedSongs = new ArrayList<>(largeSongs);
+        new SorterImpl<Song>(false).quickSort(sequentialSortedSongs, rankingScheme);
+        difference = findFirstDifference(expectedSongs, sequentialSortedSongs, rankingScheme, 3);
+        assertNull(difference, difference);
+    }
+
+    @Test
+    void quickSortHandlesSortedReversedAndEqualItems() {
+        List<Song> largeSongs = new ArrayList<>(new ChartsCalculator(4L).registerStreamedSongs(20000));
+        Sorter<Song> sequentialSorter = new SorterImpl<>(false);
+
+        // already sorted and reversed input shall not degrade into deep recursion
+        largeSongs.sort(rankingScheme);
+        List<Song> expectedSongs = new ArrayList<>(largeSongs);
+        sequentialSorter.quickSort(largeSongs, rankingScheme);
+        String difference = findFirstDifference(expectedSongs, largeSongs, rankingScheme, 3);
+        assertNull(difference, difference);
+        Collections.reverse(largeSongs);
+        sequentialSorter.quickSort(largeSongs, rankingScheme);
+        difference = findFirstDifference(expectedSongs, largeSongs, rankingScheme, 3);
+        assertNull(difference, difference);
+
+        // many equal keys
+        Comparator<Song> byLanguage = Comparator.comparing(Song::getLanguage);
+        Collections.shuffle(largeSongs, new Random(4L));
+        sequentialSorter.quickSort(largeSongs, byLanguage);
+        expectedSongs.sort(byLanguage);
+        difference = findFirstDifference(expectedSongs, largeSongs, byLanguage, 3);
+        assertNull(difference, difference);
+        sequentialSorter.quickSort(largeSongs, (s1, s2) -> 0);
+    }
+
+    @Test
+    void allSortsHandleSequentialAccessLists() {
+        customSortAndCollectionSortResultInSameOrder((items, comparator) -> {
+            List<Song> linkedSongs = new LinkedList<>(items);
+            songSorter.selInsBubSort(linkedSongs, comparator);
+            Collections.copy(items, linkedSongs);
+            return items;
+        });
+        customSortAndCollectionSortResultInSameOrder((items, comparator) -> {
+            List<Song> linkedSongs = new LinkedList<>(items);
+            songSorter.quickSort(linkedSongs, comparator);
+            Collections.copy(items, linkedSongs);
+            return items;
+        });
+
+        List<Song> linkedSongs = new LinkedList<>(manySongs);
+        songSorter.topsHeapSort(25, linkedSongs, rankingScheme);
+        manySongs.sort(rankingScheme);
+        assertEquals(manySongs.subList(0,25), linkedSongs.subList(0,25));
+    }
+
     private void customSortAndCollectionSortResultInSameOrder(BiFunction<List<Song>,Comparator,List<Song>> sorterMethod) {
         List<Song> fewSortedSongs = new ArrayList<>(fewSongs);
         Collections.shuffle(fewSortedSongs);
@@ -83,6 +261,68 @@ class SongSorterTest {
         assertEquals(manySongs.subList(0,25), manySortedSongs.subList(0,25));
     }
 
+    @Test
+    void topsHeapSortFindsLargeLeadCollections() {
+        List<Song> largeSongs = new ArrayList<>(new ChartsCalculator(10L).registerStreamedSongs(20000));
+        Comparator<Song> byLanguage = Comparator.comparing(Song::getLanguage);
+
+        for (Comparator<Song> comparator : List.of(rankingScheme, byLanguage)) {
+            List<Song> expectedSongs = new ArrayList<>(largeSongs);
+            expectedSongs.sort(comparator);
+            for (int numTops : new int[] { 1, 100, 2000, 19999, 20000 }) {
+                List<Song> sortedSongs = new ArrayList<>(largeSongs);
+                songSorter.topsHeapSort(numTops, sortedSongs, comparator);
+                String difference = findFirstDifference(expectedSongs.subList(0, numTops),
+                        sortedSongs.subList(0, numTops), comparator, 3);
+                assertNull(difference, difference);
+                // all items in the tail shall succeed the lead collection
+                Song lastTop = sortedSongs.get(numTops - 1);
+                for (Song song : sortedSongs.subList(numTops, sortedSongs.size())) {
+                    assertTrue(comparator.compare(lastTop, song) <= 0);
+                }
+            }
+        }
+
+        // already sorted input
+        largeSongs.sort(rankingScheme);
+        List<Song> sortedSongs = new ArrayList<>(largeSongs);
+        songSorter.topsHeapSort(5000, sortedSongs, rankingScheme);
+        String difference = findFirstDifference(largeSongs.subList(0, 5000), sortedSongs.subList(0, 5000), rankingScheme, 3);
+        assertNull(difference, difference);
+    }
+
+    @Test
+    void reRankRestoresOrderAfterChanges() {
+        List<Song> largeSongs = new ArrayList<>(new ChartsCalculator(14L).registerStreamedSongs(20000));
+        largeSongs.sort(rankingScheme);
+        Random randomizer = new Random(15L);
+
+        for (int numChanges : new int[] { 0, 1, 50, 5000 }) {
+            Set<Song> changedSongs = new HashSet<>();
+            while (changedSongs.size() < numChanges) {
+                Song song = largeSongs.get(randomizer.nextInt(largeSongs.size()));
+                song.setStreamsCountOfCountry(Song.Country.values()[randomizer.nextInt(7)], randomizer.nextInt(100000));
+                changedSongs.add(song);
+            }
+            List<Song> expectedSongs = new ArrayList<>(largeSongs);
+            expectedSongs.sort(rankingScheme);
+
+            List<Song> reRankedSongs = songSorter.reRank(largeSongs, changedSongs, rankingScheme);
+            assertSame(largeSongs, reRankedSongs);
+            String difference = findFirstDifference(expectedSongs, reRankedSongs, rankingScheme, 3);
+            assertNull(difference, difference);
+            assertEquals(new HashSet<>(expectedSongs), new HashSet<>(reRankedSongs));
+        }
+
+        // new songs are added into the ranking
+        Song newSong = new Song("Antoon", "Leuk", Song.Language.NL);
+        newSong.setStreamsCountOfCountry(Song.Country.NL, 1000000);
+        List<Song> linkedSongs = new LinkedList<>(largeSongs);
+        songSorter.reRank(linkedSongs, List.of(newSong, largeSongs.get(10)), rankingScheme);
+        assertEquals(20001, linkedSongs.size());
+        assertSame(newSong, linkedSongs.get(0));
+    }
+
     public static <E> String findFirstDifference(List<E> expected, List<E> actual, Comparator<E> ranker, int displayLength) {
         if (expected.size() != actual.size()) {
             return String.format("Expected list with size=%d, got %d", expected.size(), actual.size());
@@ -0,0 +1,89 @@
+package spotifycharts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongTableTest {
+    private List<Song> songs;
+    private SongTable songTable;
+
+    @BeforeEach
+    void setup() {
+        ChartsCalculator chartsCalculator = new ChartsCalculator(11L);
+        songs = chartsCalculator.registerStreamedSongs(5000);
+        songTable = chartsCalculator.createSongTable();
+    }
+
+    @Test
+    void tableHoldsCopiesOfAllSongs() {
+        assertEquals(songs.size(), songTable.size());
+        for (int i = 0; i < songs.size(); i++) {
+            Song song = songs.get(i);
+            assertEquals(song.getArtist(), songTable.getArtist(i));
+            assertEquals(song.getTitle(), songTable.getTitle(i));
+            assertEquals(song.getLanguage(), songTable.getLanguage(i));
+            assertEquals(song.getStreamsCountTotal(), songTable.getStreamsCountTotal(i));
+            for (Song.Country country : Song.Country.values()) {
+                assertEquals(song.getStreamsCountOfCountry(country), songTable.getStreamsCountOfCountry(i, country));
+            }
+        }
+        assertEquals(songs.get(7).toString(), songTable.getSong(7).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> songTable.getTitle(songs.size()));
+    }
+
+    @Test
+    void rankingsYieldSameOrderAsStableSorts() {
+        // List.sort is a stable sort, as are the rankings, so both shall yield the exact same order
+        checkRanking(songTable.rankByHighestStreamsCountTotal(), Song::compareByHighestStreamsCountTotal);
+        checkRanking(songTable.rankByLowestStreamsCountTotal(), Comparator.comparing(Song::getStreamsCountTotal));
+        checkRanking(songTable.rankForDutchNationalChart(), Song::compareForDutchNationalChart);
+        for (Song.Country country : Song.Country.values()) {
+            Comparator<Song> byCountry = Comparator.comparingInt(song -> song.getStreamsCountOfCountry(country));
+            checkRanking(songTable.rankByHighestStreamsCountOfCountry(country), byCountry.reversed());
+        }
+        for (Song.Language language : Song.Language.values()) {
+            int[] ranking = songTable.rankByHighestStreamsCountTotalOfLanguage(language);
+            List<Song> expectedSongs = new ArrayList<>();
+            for (Song song : songs) {
+                if (song.getLanguage() == language) {
+                    expectedSongs.add(song);
+                }
+            }
+            expectedSongs.sort(Song::compareByHighestStreamsCountTotal);
+            assertEquals(expectedSongs.size(), ranking.length);
+            for (int i = 0; i < ranking.length; i++) {
+                assertSame(expectedSongs.get(i), songs.get(ranking[i]));
+            }
+        }
+    }
+
+    @Test
+    void streamsCountsCanBeUpdated() {
+        SongTable table = new SongTable(1);
+        int first = table.add("Antoon", "Leuk", Song.Language.NL);
+        int second = table.add("Antoon", "Olivia", Song.Language.NL);
+        table.setStreamsCountOfCountry(first, Song.Country.NL, 100);
+        table.setStreamsCountOfCountry(second, Song.Country.NL, 50);
+        table.setStreamsCountOfCountry(second, Song.Country.BE, 70);
+        assertArrayEquals(new int[] { second, first }, table.rankByHighestStreamsCountTotal());
+
+        table.setStreamsCountOfCountry(second, Song.Country.BE, 10);
+        assertEquals(60, table.getStreamsCountTotal(second));
+        assertArrayEquals(new int[] { first, second }, table.rankByHighestStreamsCountTotal());
+        assertArrayEquals(new int[] { first, second }, table.rankByHighestStreamsCountOfCountry(Song.Country.NL));
+        assertEquals(0, new SongTable().rankByHighestStreamsCountTotal().length);
+    }
+
+    private void checkRanking(int[] ranking, Comparator<Song> comparator) {
+        List<Song> expectedSongs = new ArrayList<>(songs);
+        expectedSongs.sort(comparator);
+        assertEquals(songs.size(), ranking.length);
+        for (int i = 0; i < ranking.length; i++) {
+            assertSame(expectedSongs.get(i), songs.get(ranking[i]));
+        }
+    }
+}
@@ -4,7 +4,9 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -100,6 +102,55 @@ public class SongTest {
         checkRankingScheme("Dutch national", rankingSchemeDutchNational, +1, 0, -1, 0, +1);
     }
 
+    @Test
+    void sortKeysOrderLikeRankingSchemes() {
+        Comparator<Song> keyTotal = Comparator.comparingLong(Song::getHighestStreamsCountTotalKey);
+        Comparator<Song> keyDutchNational = Comparator.comparingLong(Song::getDutchNationalChartKey);
+        checkRankingScheme("Streams count total key", keyTotal, -1, 0, +1, 0, +1);
+        checkRankingScheme("Dutch national key", keyDutchNational, +1, 0, -1, 0, +1);
+    }
+
+    @Test
+    void concurrentStreamsAreAllCounted() throws InterruptedException {
+        Song.Country[] countries = Song.Country.values();
+        int numThreads = 8;
+        int numPlays = 20000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < numPlays; i++) {
+                    songBYC.addStreams(countries[(i + offset) % countries.length], 1);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = 0;
+        for (Song.Country country : countries) {
+            total += songBYC.getStreamsCountOfCountry(country);
+        }
+        assertEquals(160 + numThreads * numPlays, total);
+        assertEquals(total, songBYC.getStreamsCountTotal());
+
+        int dutchCount = songBYC.getStreamsCountOfCountry(Song.Country.NL);
+        assertEquals(dutchCount + 5, songBYC.addStreams(Song.Country.NL, 5));
+        assertEquals(total + 5, songBYC.getStreamsCountTotal());
+    }
+
+    @Test
+    void intKeyComparatorsOrderLikeRankingSchemes() {
+        checkRankingScheme("Streams count total comparator", Song.BY_HIGHEST_STREAMS_COUNT_TOTAL, -1, 0, +1, 0, +1);
+        checkRankingScheme("Dutch national comparator", Song.FOR_DUTCH_NATIONAL_CHART, +1, 0, -1, 0, +1);
+        checkRankingScheme("Lowest streams count total comparator", Song.BY_LOWEST_STREAMS_COUNT_TOTAL, +1, 0, -1, 0, -1);
+        checkRankingScheme("Reversed Dutch national comparator", Song.FOR_DUTCH_NATIONAL_CHART.reversed(), -1, 0, +1, 0, -1);
+    }
+
     private static int sign(int a) {
         return a > 0 ? +1 : a < 0 ? -1 : a;
     }
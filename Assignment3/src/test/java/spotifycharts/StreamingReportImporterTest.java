@@ -0,0 +1,149 @@
+package spotifycharts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingReportImporterTest {
+
+    @Test
+    void importsQuotedFieldsAndAccumulatesCounts() {
+        SongTable songTable = new SongTable();
+        StreamingReportImporter importer = new StreamingReportImporter(songTable);
+        String report = "country,artist,title,language,streamsCount\r\n" +
+                "NL,Kris Kross Amsterdam,Vluchtstrook,NL,40\r\n" +
+                "BE,Kris Kross Amsterdam,Vluchtstrook,NL,30\r\n" +
+                "\r\n" +
+                "UK,\"Macklemore & Ryan Lewis\",\"Can't Hold Us, \"\"Live\"\"\",EN,100\n" +
+                "SP,Rels B,cómo dormiste?,SP,\"7\"";
+
+        assertEquals(4, importer.importReport(toInput(report)));
+        assertEquals(3, songTable.size());
+        int kka = songTable.indexOf("Kris Kross Amsterdam", "Vluchtstrook");
+        assertEquals(70, songTable.getStreamsCountTotal(kka));
+        assertEquals(Song.Language.NL, songTable.getLanguage(kka));
+        int macklemore = songTable.indexOf("Macklemore & Ryan Lewis", "Can't Hold Us, \"Live\"");
+        assertEquals(100, songTable.getStreamsCountOfCountry(macklemore, Song.Country.UK));
+        assertEquals(7, songTable.getStreamsCountTotal(songTable.indexOf("Rels B", "cómo dormiste?")));
+
+        // a next daily report adds to the counts
+        assertEquals(1, importer.importReport(toInput("NL,Kris Kross Amsterdam,Vluchtstrook,NL,5\n")));
+        assertEquals(45, songTable.getStreamsCountOfCountry(kka, Song.Country.NL));
+        assertEquals(-1, songTable.indexOf("Kris Kross Amsterdam", "Unknown"));
+    }
+
+    @Test
+    void malformedReportsAreRejected() {
+        SongTable songTable = new SongTable();
+        int kka = songTable.add("Kris Kross Amsterdam", "Vluchtstrook", Song.Language.NL);
+        songTable.setStreamsCountOfCountry(kka, Song.Country.NL, 10);
+        StreamingReportImporter importer = new StreamingReportImporter(songTable);
+        for (String report : List.of(
+                "NL,Kris Kross Amsterdam,Vluchtstrook,NL\n",
+                "NL,Kris Kross Amsterdam,Vluchtstrook,NL,40,extra\n",
+                "XX,Kris Kross Amsterdam,Vluchtstrook,NL,40\n",
+                "NL,Kris Kross Amsterdam,Vluchtstrook,NL,4O\n",
+                "NL,Kris Kross Amsterdam,Vluchtstrook,NL,99999999999\n",
+                "NL,Kris Kross Amsterdam,Vluchtstrook,NL,\"4O\"\n",
+                "NL,\"Kris Kross Amsterdam,Vluchtstrook,NL,40\n")) {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> importer.importReport(toInput(report)), report);
+            assertTrue(exception.getMessage().contains("line 1"), exception.getMessage());
+        }
+
+        // valid lines ahead of a bad line are not applied either, such that the report can be retried after repair
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            report.append("NL,Kris Kross Amsterdam,Vluchtstrook,NL,1\n");
+            report.append("BE,Antoon,Olivia,NL,2\n");
+        }
+        report.append("NL,Kris Kross Amsterdam,Vluchtstrook,NL,4O\n");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> importer.importReport(toInput(report.toString())));
+        assertTrue(exception.getMessage().contains("line 20001"), exception.getMessage());
+        assertEquals(1, songTable.size());
+        assertEquals(10, songTable.getStreamsCountTotal(kka));
+        assertEquals(-1, songTable.indexOf("Antoon", "Olivia"));
+    }
+
+    @Test
+    void overflowingCountsAreRejected() {
+        SongTable songTable = new SongTable();
+        int kka = songTable.add("Kris Kross Amsterdam", "Vluchtstrook", Song.Language.NL);
+        songTable.setStreamsCountOfCountry(kka, Song.Country.NL, 10);
+        StreamingReportImporter importer = new StreamingReportImporter(songTable);
+
+        // two rows of one report that add up beyond Integer.MAX_VALUE
+        String report = "BE,Antoon,Olivia,NL,5\n" +
+                "NL,Kris Kross Amsterdam,Vluchtstrook,NL,2000000000\n" +
+                "NL,Kris Kross Amsterdam,Vluchtstrook,NL,2000000000\n";
+        assertThrows(IllegalArgumentException.class, () -> importer.importReport(toInput(report)));
+        // different countries of one song, of which the total overflows
+        String totalReport = "NL,Kris Kross Amsterdam,Vluchtstrook,NL,2000000000\n" +
+                "BE,Kris Kross Amsterdam,Vluchtstrook,NL,2000000000\n";
+        assertThrows(IllegalArgumentException.class, () -> importer.importReport(toInput(totalReport)));
+        assertEquals(1, songTable.size());
+        assertEquals(10, songTable.getStreamsCountTotal(kka));
+
+        // two reports that add up beyond Integer.MAX_VALUE
+        assertEquals(1, importer.importReport(toInput("NL,Kris Kross Amsterdam,Vluchtstrook,NL,2000000000\n")));
+        assertThrows(IllegalArgumentException.class, () -> importer.importReport(toInput(
+                "BE,Antoon,Olivia,NL,5\nNL,Kris Kross Amsterdam,Vluchtstrook,NL,2000000000\n")));
+        assertEquals(2000000010, songTable.getStreamsCountOfCountry(kka, Song.Country.NL));
+        assertEquals(2000000010, songTable.getStreamsCountTotal(kka));
+        assertEquals(-1, songTable.indexOf("Antoon", "Olivia"));
+    }
+
+    @Test
+    void largeReportFilesMatchRegisteredSongs(@TempDir Path tempDir) throws IOException {
+        ChartsCalculator chartsCalculator = new ChartsCalculator(13L);
+        List<Song> songs = chartsCalculator.registerStreamedSongs(20000);
+
+        // write one daily report per country with the streams counts of all songs of the calculator
+        List<Path> reportFiles = new ArrayList<>();
+        for (Song.Country country : Song.Country.values()) {
+            StringBuilder report = new StringBuilder("country,artist,title,language,streamsCount\n");
+            for (Song song : songs) {
+                report.append(String.format("%s,\"%s\",\"%s\",%s,%d\n", country,
+                        song.getArtist().replace("\"", "\"\""), song.getTitle().replace("\"", "\"\""),
+                        song.getLanguage(), song.getStreamsCountOfCountry(country)));
+            }
+            Path reportFile = tempDir.resolve("report-" + country + ".csv");
+            Files.writeString(reportFile, report, StandardCharsets.UTF_8);
+            reportFiles.add(reportFile);
+        }
+
+        // the reports double the streams count of every registered (artist, title)
+        SongTable songTable = chartsCalculator.importStreamingReports(reportFiles);
+        assertEquals(songs.size(), songTable.size());
+        // songs with the same (artist, title) are copied into separate rows of the table,
+        // but all of their report lines accumulate into the first of these rows
+        Map<String, Integer> songTotals = new HashMap<>();
+        for (Song song : songs) {
+            assertTrue(songTable.indexOf(song.getArtist(), song.getTitle()) >= 0, song.toString());
+            songTotals.merge(song.getArtist() + "/" + song.getTitle(), song.getStreamsCountTotal(), Integer::sum);
+        }
+        Map<String, Integer> tableTotals = new HashMap<>();
+        for (int index = 0; index < songTable.size(); index++) {
+            tableTotals.merge(songTable.getArtist(index) + "/" + songTable.getTitle(index),
+                    songTable.getStreamsCountTotal(index), Integer::sum);
+        }
+        assertEquals(songTotals.keySet(), tableTotals.keySet());
+        for (Map.Entry<String, Integer> songTotal : songTotals.entrySet()) {
+            assertEquals(2 * songTotal.getValue(), tableTotals.get(songTotal.getKey()), songTotal.getKey());
+        }
+    }
+
+    private static InputStream toInput(String report) {
+        return new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8));
+    }
+}